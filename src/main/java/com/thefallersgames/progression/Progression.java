@@ -1,13 +1,18 @@
 package com.thefallersgames.progression;
 
+import java.util.concurrent.TimeUnit;
+
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import com.thefallersgames.progression.adapter.PlaceholderAPIAdapter;
+import com.thefallersgames.progression.adapter.PlaceholderValueCache;
 import com.thefallersgames.progression.api.adapter.PlaceholderAdapter;
 import com.thefallersgames.progression.api.facade.UnlockFacade;
 import com.thefallersgames.progression.api.factory.ConditionFactory;
+import com.thefallersgames.progression.api.service.NotificationChannel;
+import com.thefallersgames.progression.api.service.NotificationService;
 import com.thefallersgames.progression.api.service.ProgressService;
 import com.thefallersgames.progression.command.ProgressionCommand;
 import com.thefallersgames.progression.condition.BreakCondition;
@@ -24,6 +29,11 @@ import com.thefallersgames.progression.listener.PlayerListener;
 import com.thefallersgames.progression.listener.ProgressionListener;
 import com.thefallersgames.progression.placeholder.ProgressionExpansion;
 import com.thefallersgames.progression.service.DefaultProgressService;
+import com.thefallersgames.progression.service.InventorySweepScheduler;
+import com.thefallersgames.progression.service.PlaceholderSampler;
+import com.thefallersgames.progression.service.ProgressAggregator;
+import com.thefallersgames.progression.service.ProgressPipeline;
+import com.thefallersgames.progression.service.ThrottledNotificationService;
 import com.thefallersgames.progression.condition.PrerequisiteCondition;
 import com.thefallersgames.progression.condition.CompositeCondition;
 
@@ -37,20 +47,39 @@ public class Progression extends JavaPlugin {
     private PlayerDataManager playerDataManager;
     private ConditionFactory conditionFactory;
     private PlaceholderAdapter placeholderAdapter;
+    private PlaceholderValueCache placeholderValueCache;
+    private PlaceholderSampler placeholderSampler;
     private ProgressService progressService;
+    private NotificationService notificationService;
     private UnlockFacade unlockFacade;
+    private InventoryListener inventoryListener;
+    private InventorySweepScheduler inventorySweeper;
+    private ProgressAggregator progressAggregator;
+    private ProgressPipeline progressPipeline;
     
     @Override
     public void onEnable() {
         // Save default config
         saveDefaultConfig();
         
+        // Without its configured storage every player would start at zero, so don't run at all
+        try {
+            playerDataManager = new PlayerDataManager(this);
+        } catch (IllegalStateException e) {
+            getLogger().severe(e.getMessage() + ". Disabling the plugin; fix the storage settings and restart.");
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
+        
         // Initialize core components
         initializeComponents();
         
         // Register event listeners
         registerListeners();
         
+        // Load data for players who are already online, e.g. after a reload
+        loadOnlinePlayers();
+        
         // Register commands
         registerCommands();
         
@@ -64,8 +93,8 @@ public class Progression extends JavaPlugin {
      * Initialize the core components of the plugin
      */
     private void initializeComponents() {
-        // Create data manager
-        playerDataManager = new PlayerDataManager(this);
+        // Start saving player data in the background
+        playerDataManager.startAutosave();
         
         // Create factory and register condition types
         conditionFactory = new ConditionFactory();
@@ -73,9 +102,15 @@ public class Progression extends JavaPlugin {
         
         // Create placeholder adapter
         placeholderAdapter = new PlaceholderAPIAdapter();
+        placeholderValueCache = new PlaceholderValueCache(placeholderAdapter);
+        
+        // Create the service telling players about locked items and milestones
+        notificationService = new ThrottledNotificationService();
+        configureNotifications();
         
         // Create progress service
-        progressService = new DefaultProgressService(playerDataManager, conditionFactory, placeholderAdapter);
+        progressService = new DefaultProgressService(playerDataManager, conditionFactory, placeholderAdapter,
+                notificationService);
         
         // Register conditions that depend on progressService
         conditionFactory.registerCondition("prerequisite", config -> 
@@ -86,11 +121,93 @@ public class Progression extends JavaPlugin {
             new CompositeCondition(config, conditionFactory));
         
         // Load conditions from config
-        ConfigurationSection lockedItems = getConfig().getConfigurationSection("locked-items");
-        ((DefaultProgressService) progressService).loadItemConditions(lockedItems);
+        loadItemConditions();
+        
+        // Poll placeholder-based items, which no recorded progress unlocks
+        placeholderSampler = new PlaceholderSampler((DefaultProgressService) progressService, placeholderValueCache);
+        ((DefaultProgressService) progressService).setPlaceholderSampler(placeholderSampler);
+        placeholderSampler.start(this, getConfig().getDouble("placeholders.sample-budget-ms", 0));
         
         // Create unlock facade
-        unlockFacade = new ProgressionFacade(progressService);
+        unlockFacade = new ProgressionFacade(progressService, playerDataManager, notificationService);
+    }
+    
+    /**
+     * Apply the notification settings. Configs from before the setting existed send lock messages to chat.
+     */
+    private void configureNotifications() {
+        ThrottledNotificationService service = (ThrottledNotificationService) notificationService;
+        
+        String channelName = getConfig().getString("notifications.channel", "chat");
+        NotificationChannel channel = NotificationChannel.fromConfig(channelName);
+        if (channel == null) {
+            getLogger().warning("Unknown notification channel '" + channelName + "', sending to chat instead");
+            channel = NotificationChannel.CHAT;
+        }
+        service.setChannel(channel);
+        service.setCooldownMillis(getConfig().getLong("notifications.cooldown-ms", 3000L));
+    }
+    
+    /**
+     * Load the locked items and the settings that shape how their progress is tracked
+     */
+    private void loadItemConditions() {
+        DefaultProgressService service = (DefaultProgressService) progressService;
+        
+        playerDataManager.getCounterRegistry().setRecordingAll(isRecordingAll());
+        placeholderValueCache.setTtlMillis(getConfig().getLong("placeholders.cache-ttl-ms", 0L));
+        placeholderValueCache.clear();
+        service.setMilestones(getConfig().getIntegerList("milestones.percentages"),
+                getConfig().getString("milestones.message", ""));
+        
+        ConfigurationSection lockedItems = getConfig().getConfigurationSection("locked-items");
+        service.loadItemConditions(lockedItems);
+    }
+    
+    /**
+     * Check if progress should be recorded for every counter rather than only those used by conditions.
+     * Configs from before the tracking filter existed don't have the option and keep recording everything.
+     * 
+     * @return true if the tracking filter is off
+     */
+    private boolean isRecordingAll() {
+        return getConfig().getBoolean("tracking.record-all", true);
+    }
+    
+    /**
+     * Get how often buffered progress is applied
+     * 
+     * @return The flush interval in ticks
+     */
+    private long getFlushIntervalTicks() {
+        return Math.max(1L, getConfig().getLong("tracking.flush-interval-ticks", 1L));
+    }
+    
+    /**
+     * Start evaluating progress on a separate thread if the config asks for it
+     */
+    private void startProgressPipeline() {
+        if (!getConfig().getBoolean("tracking.async-evaluation.enabled", false)) {
+            progressPipeline = null;
+            progressAggregator.setPipeline(null);
+            return;
+        }
+        
+        progressPipeline = new ProgressPipeline((DefaultProgressService) progressService,
+            playerDataManager.getCounterRegistry(), getConfig().getInt("tracking.async-evaluation.buffer-size", 8192),
+            inventorySweeper::requestSweep);
+        progressPipeline.start(this);
+        progressAggregator.setPipeline(progressPipeline);
+    }
+    
+    /**
+     * Stop the evaluation thread, if running, once it has evaluated everything already queued
+     */
+    private void stopProgressPipeline() {
+        if (progressPipeline != null) {
+            progressAggregator.setPipeline(null);
+            progressPipeline.stop();
+        }
     }
     
     /**
@@ -103,7 +220,7 @@ public class Progression extends JavaPlugin {
         
         // Register placeholder condition
         conditionFactory.registerCondition("placeholder", config -> 
-            new PlaceholderCondition(config, placeholderAdapter));
+            new PlaceholderCondition(config, placeholderValueCache));
         
         // Register collect condition
         conditionFactory.registerCondition("collect", config -> 
@@ -119,30 +236,55 @@ public class Progression extends JavaPlugin {
      */
     private void registerListeners() {
         // Create inventory listener first since other listeners depend on it
-        InventoryListener inventoryListener = new InventoryListener(unlockFacade);
+        inventoryListener = new InventoryListener(unlockFacade, notificationService, playerDataManager);
         
         // Register inventory listener
         getServer().getPluginManager().registerEvents(inventoryListener, this);
         
+        // Sweep inventories for locked items at most once per player per tick
+        inventorySweeper = new InventorySweepScheduler(inventoryListener::dropLockedItems);
+        inventorySweeper.start(this);
+        
         // Register item use listener
         getServer().getPluginManager().registerEvents(
-            new ItemUseListener(unlockFacade, inventoryListener, this), this);
+            new ItemUseListener(unlockFacade, notificationService, inventorySweeper), this);
         
         // Register item pickup listener
         getServer().getPluginManager().registerEvents(
-            new ItemPickupListener(unlockFacade, inventoryListener, this), this);
+            new ItemPickupListener(unlockFacade, notificationService, inventorySweeper), this);
         
         // Register player equip listener
         getServer().getPluginManager().registerEvents(
-            new PlayerEquipListener(unlockFacade, inventoryListener, this), this);
+            new PlayerEquipListener(unlockFacade, notificationService, inventorySweeper), this);
         
         // Register player login listener
         getServer().getPluginManager().registerEvents(
-            new PlayerListener(playerDataManager, inventoryListener, this), this);
+            new PlayerListener(playerDataManager, notificationService, placeholderValueCache, inventoryListener), this);
         
-        // Register progression listener for tracking events
+        // Register progression listener for tracking events; progress is applied once per flush interval
+        progressAggregator = new ProgressAggregator(progressService, playerDataManager.getCounterRegistry(),
+            inventorySweeper::requestSweep);
+        progressAggregator.start(this, getFlushIntervalTicks());
+        startProgressPipeline();
         getServer().getPluginManager().registerEvents(
-            new ProgressionListener(progressService, inventoryListener, this), this);
+            new ProgressionListener(progressAggregator, playerDataManager.getCounterRegistry()), this);
+    }
+    
+    /**
+     * Load the data of every online player in parallel and report how long it took
+     */
+    private void loadOnlinePlayers() {
+        int online = Bukkit.getOnlinePlayers().size();
+        if (online == 0) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        int loaded = playerDataManager.loadOnlinePlayers(Bukkit.getOnlinePlayers(), inventoryListener::dropLockedItems);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        getLogger().info("Loaded progression data for " + loaded + "/" + online + " online players in " + elapsedMillis + " ms"
+                + (loaded < online ? ", the rest will be enforced once their data arrives" : ""));
     }
     
     /**
@@ -171,18 +313,39 @@ public class Progression extends JavaPlugin {
         // Reload the config from disk
         reloadConfig();
         
-        // Reload item conditions
-        ConfigurationSection lockedItems = getConfig().getConfigurationSection("locked-items");
-        ((DefaultProgressService) progressService).loadItemConditions(lockedItems);
+        // Settle progress recorded under the old conditions; the evaluation thread must not see them change
+        stopProgressPipeline();
+        progressAggregator.stop();
+        
+        // Reload item conditions, which also rebuilds the set of tracked counters
+        loadItemConditions();
+        configureNotifications();
+        progressAggregator.start(this, getFlushIntervalTicks());
+        startProgressPipeline();
+        placeholderSampler.start(this, getConfig().getDouble("placeholders.sample-budget-ms", 0));
         
         getLogger().info("Progression configuration reloaded");
     }
     
     @Override
     public void onDisable() {
-        // Save player data
+        if (placeholderSampler != null) {
+            placeholderSampler.stop();
+        }
+        
+        // Apply progress still buffered from the last tick before it is saved
+        if (progressAggregator != null) {
+            stopProgressPipeline();
+            progressAggregator.stop();
+        }
+        
+        if (inventorySweeper != null) {
+            inventorySweeper.stop();
+        }
+        
+        // Flush player data and stop the storage threads
         if (playerDataManager != null) {
-            playerDataManager.saveAllPlayerData();
+            playerDataManager.shutdown();
         }
         
         getLogger().info("Progression plugin disabled!");
@@ -206,6 +369,33 @@ public class Progression extends JavaPlugin {
         return unlockFacade;
     }
     
+    /**
+     * Get the notification service
+     * 
+     * @return The service telling players about locked items
+     */
+    public NotificationService getNotificationService() {
+        return notificationService;
+    }
+    
+    /**
+     * Get the inventory sweep scheduler
+     * 
+     * @return The scheduler sweeping inventories for locked items
+     */
+    public InventorySweepScheduler getInventorySweeper() {
+        return inventorySweeper;
+    }
+    
+    /**
+     * Get the asynchronous progress pipeline
+     * 
+     * @return The pipeline, or null if progress is evaluated on the main thread
+     */
+    public ProgressPipeline getProgressPipeline() {
+        return progressPipeline;
+    }
+    
     /**
      * Get the player data manager
      * 
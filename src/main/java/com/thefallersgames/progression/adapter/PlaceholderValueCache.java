@@ -0,0 +1,116 @@
+package com.thefallersgames.progression.adapter;
+
+import org.bukkit.entity.Player;
+
+import com.thefallersgames.progression.api.adapter.PlaceholderAdapter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Numeric placeholder values per player, kept for a short time so lock checks on every click or
+ * hotbar scroll don't run a third-party placeholder and parse its output each time.
+ * Values older than the time-to-live are sampled again on the next read. A player's values are
+ * dropped when they leave, so the cache only holds values of online players.
+ */
+public class PlaceholderValueCache {
+    
+    private final PlaceholderAdapter placeholderAdapter;
+    private final Map<UUID, Map<String, Sample>> values;
+    private volatile long ttlNanos;
+    
+    /**
+     * Create a new PlaceholderValueCache
+     * 
+     * @param placeholderAdapter The adapter sampling the placeholders
+     */
+    public PlaceholderValueCache(PlaceholderAdapter placeholderAdapter) {
+        this.placeholderAdapter = placeholderAdapter;
+        this.values = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Set how long a sampled value stays valid
+     * 
+     * @param ttlMillis The time-to-live in milliseconds, 0 to sample on every read
+     */
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, ttlMillis));
+    }
+    
+    /**
+     * Get the numeric value of a placeholder, sampling it if the cached value expired
+     * 
+     * @param player The player
+     * @param placeholder The placeholder, including its % signs
+     * @return The value, or 0 if the placeholder didn't produce a number
+     */
+    public double getValue(Player player, String placeholder) {
+        long now = System.nanoTime();
+        
+        if (ttlNanos > 0) {
+            Map<String, Sample> playerValues = values.get(player.getUniqueId());
+            Sample sample = playerValues == null ? null : playerValues.get(placeholder);
+            if (sample != null && now - sample.sampledAt < ttlNanos) {
+                return sample.value;
+            }
+        }
+        
+        double value = sample(player, placeholder);
+        if (ttlNanos > 0) {
+            values.computeIfAbsent(player.getUniqueId(), k -> new ConcurrentHashMap<>())
+                    .put(placeholder, new Sample(value, now));
+        }
+        return value;
+    }
+    
+    /**
+     * Forget a player's values, e.g. when they leave
+     * 
+     * @param playerId The player's UUID
+     */
+    public void forget(UUID playerId) {
+        values.remove(playerId);
+    }
+    
+    /**
+     * Forget the values of every player not in the given set
+     * 
+     * @param playerIds The players whose values to keep
+     */
+    public void retainPlayers(Collection<UUID> playerIds) {
+        values.keySet().retainAll(playerIds);
+    }
+    
+    /**
+     * Forget every value, e.g. after a reload changed the placeholders in use
+     */
+    public void clear() {
+        values.clear();
+    }
+    
+    private double sample(Player player, String placeholder) {
+        String value = placeholderAdapter.setPlaceholders(player, placeholder);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    /**
+     * A sampled value and when it was sampled
+     */
+    private static class Sample {
+        private final double value;
+        private final long sampledAt;
+        
+        private Sample(double value, long sampledAt) {
+            this.value = value;
+            this.sampledAt = sampledAt;
+        }
+    }
+}
\ No newline at end of file
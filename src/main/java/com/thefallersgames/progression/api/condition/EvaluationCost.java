@@ -0,0 +1,34 @@
+package com.thefallersgames.progression.api.condition;
+
+/**
+ * How expensive a condition is to evaluate, from cheapest to most expensive.
+ * Composite conditions check their cheapest sub-conditions first, so a failing counter
+ * short-circuits before a prerequisite chain or a placeholder is evaluated.
+ */
+public enum EvaluationCost {
+    
+    /**
+     * Reads one of the player's progress counters
+     */
+    COUNTER,
+    
+    /**
+     * Checks whether other items are unlocked, which may evaluate their conditions in turn
+     */
+    PREREQUISITE,
+    
+    /**
+     * Calls into another plugin, e.g. a PlaceholderAPI placeholder
+     */
+    EXTERNAL;
+    
+    /**
+     * Get the more expensive of two costs
+     * 
+     * @param other The other cost
+     * @return This cost or the other, whichever is more expensive
+     */
+    public EvaluationCost max(EvaluationCost other) {
+        return other != null && other.compareTo(this) > 0 ? other : this;
+    }
+}
\ No newline at end of file
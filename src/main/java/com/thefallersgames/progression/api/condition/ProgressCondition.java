@@ -37,4 +37,14 @@ public interface ProgressCondition {
      * @return The condition description
      */
     String getDescription();
+    
+    /**
+     * Get how expensive this condition is to evaluate, so composite conditions can check cheap conditions first.
+     * Conditions that don't say are assumed to call into another plugin.
+     * 
+     * @return The evaluation cost
+     */
+    default EvaluationCost getEvaluationCost() {
+        return EvaluationCost.EXTERNAL;
+    }
 } 
\ No newline at end of file
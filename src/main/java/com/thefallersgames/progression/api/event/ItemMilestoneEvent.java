@@ -0,0 +1,104 @@
+package com.thefallersgames.progression.api.event;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Event fired when a player's progress towards a locked item passes one of the
+ * configured milestones, e.g. 50% of the required kills.
+ */
+public class ItemMilestoneEvent extends Event {
+    
+    private static final HandlerList HANDLERS = new HandlerList();
+    
+    private final Player player;
+    private final ItemStack item;
+    private final String conditionType;
+    private final int percentage;
+    private final int progress;
+    private final int required;
+    
+    /**
+     * Create a new ItemMilestoneEvent
+     * 
+     * @param player The player who reached the milestone
+     * @param item The locked item
+     * @param conditionType The type of condition the progress counts towards
+     * @param percentage The milestone, as a percentage of the required progress
+     * @param progress The player's progress
+     * @param required The progress required to meet the condition
+     */
+    public ItemMilestoneEvent(Player player, ItemStack item, String conditionType, int percentage, int progress, int required) {
+        this.player = player;
+        this.item = item;
+        this.conditionType = conditionType;
+        this.percentage = percentage;
+        this.progress = progress;
+        this.required = required;
+    }
+    
+    /**
+     * Get the player who reached the milestone
+     * 
+     * @return The player
+     */
+    public Player getPlayer() {
+        return player;
+    }
+    
+    /**
+     * Get the locked item
+     * 
+     * @return The item
+     */
+    public ItemStack getItem() {
+        return item;
+    }
+    
+    /**
+     * Get the type of condition the progress counts towards
+     * 
+     * @return The condition type
+     */
+    public String getConditionType() {
+        return conditionType;
+    }
+    
+    /**
+     * Get the milestone that was reached
+     * 
+     * @return The milestone, as a percentage of the required progress
+     */
+    public int getPercentage() {
+        return percentage;
+    }
+    
+    /**
+     * Get the player's progress
+     * 
+     * @return The progress value
+     */
+    public int getProgress() {
+        return progress;
+    }
+    
+    /**
+     * Get the progress required to meet the condition
+     * 
+     * @return The required progress
+     */
+    public int getRequired() {
+        return required;
+    }
+    
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+    
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.thefallersgames.progression.api.facade;
+
+import org.bukkit.ChatColor;
+
+import com.thefallersgames.progression.api.condition.ProgressCondition;
+
+import java.util.function.Supplier;
+
+/**
+ * The lock state of an item for a player, resolved once by UnlockFacade.getLockStatus.
+ * Listeners that need to know whether an item is tracked, whether it is locked and what to tell
+ * the player all read it from here instead of resolving the item again for each question.
+ * The status message is only rendered if it is asked for.
+ */
+public final class ItemLockStatus {
+    
+    private static final ItemLockStatus UNTRACKED =
+            new ItemLockStatus(null, null, false, () -> ChatColor.GREEN + "This item is not restricted.");
+    
+    private final String itemId;
+    private final ProgressCondition condition;
+    private final boolean tracked;
+    private final boolean locked;
+    private Supplier<String> messageRenderer;
+    private String message;
+    
+    /**
+     * Create a new ItemLockStatus for a tracked item
+     * 
+     * @param itemId The item ID, as used in the locked-items configuration
+     * @param condition The item's condition
+     * @param locked Whether the player is kept from using the item
+     * @param messageRenderer Renders the status message when it is first asked for
+     */
+    public ItemLockStatus(String itemId, ProgressCondition condition, boolean locked, Supplier<String> messageRenderer) {
+        this.itemId = itemId;
+        this.condition = condition;
+        this.tracked = condition != null;
+        this.locked = locked;
+        this.messageRenderer = messageRenderer;
+    }
+    
+    /**
+     * Create a new ItemLockStatus for a tracked item whose ID and condition the facade doesn't report
+     * 
+     * @param locked Whether the player is kept from using the item
+     * @param messageRenderer Renders the status message when it is first asked for
+     */
+    ItemLockStatus(boolean locked, Supplier<String> messageRenderer) {
+        this.itemId = null;
+        this.condition = null;
+        this.tracked = true;
+        this.locked = locked;
+        this.messageRenderer = messageRenderer;
+    }
+    
+    /**
+     * Get the status of an item no locked-items entry applies to
+     * 
+     * @return The shared untracked status
+     */
+    public static ItemLockStatus untracked() {
+        return UNTRACKED;
+    }
+    
+    /**
+     * Check if the item is tracked by the progression system
+     * 
+     * @return true if a locked-items entry applies to the item
+     */
+    public boolean isTracked() {
+        return tracked;
+    }
+    
+    /**
+     * Get the ID of the item
+     * 
+     * @return The item ID, or null if the item isn't tracked or the facade doesn't report it
+     */
+    public String getItemId() {
+        return itemId;
+    }
+    
+    /**
+     * Get the condition that unlocks the item
+     * 
+     * @return The condition, or null if the item isn't tracked or the facade doesn't report it
+     */
+    public ProgressCondition getCondition() {
+        return condition;
+    }
+    
+    /**
+     * Check if the player is kept from using the item.
+     * Players with the bypass permission, or whose progress is still loading, never are.
+     * 
+     * @return true if the item is locked for the player
+     */
+    public boolean isLocked() {
+        return locked;
+    }
+    
+    /**
+     * Check if the player may use the item
+     * 
+     * @return true unless the item is locked for the player
+     */
+    public boolean canUse() {
+        return !locked;
+    }
+    
+    /**
+     * Get a formatted message about the item's unlock status, rendering it on first use
+     * 
+     * @return The status message
+     */
+    public synchronized String getMessage() {
+        if (message == null) {
+            message = messageRenderer.get();
+            messageRenderer = null;
+        }
+        return message;
+    }
+}
\ No newline at end of file
@@ -9,6 +9,21 @@ import org.bukkit.inventory.ItemStack;
  */
 public interface UnlockFacade {
     
+    /**
+     * Resolve an item once and report everything the listeners need to know about it for a player
+     * 
+     * @param player The player to check
+     * @param item The item to check
+     * @return The item's lock status; untracked if no locked item matches it
+     */
+    default ItemLockStatus getLockStatus(Player player, ItemStack item) {
+        if (!isTrackedItem(item)) {
+            return ItemLockStatus.untracked();
+        }
+        
+        return new ItemLockStatus(!canUseItem(player, item), () -> getItemStatusMessage(player, item));
+    }
+    
     /**
      * Check if a player can use an item
      * 
@@ -0,0 +1,40 @@
+package com.thefallersgames.progression.api.service;
+
+/**
+ * Where notifications are shown to a player.
+ */
+public enum NotificationChannel {
+    
+    /**
+     * The chat window
+     */
+    CHAT,
+    
+    /**
+     * The action bar above the hotbar
+     */
+    ACTION_BAR,
+    
+    /**
+     * The subtitle in the middle of the screen
+     */
+    TITLE;
+    
+    /**
+     * Get the channel for a configuration value
+     * 
+     * @param name The configured name, e.g. "action-bar"
+     * @return The channel, or null if the name doesn't match one
+     */
+    public static NotificationChannel fromConfig(String name) {
+        if (name == null) {
+            return null;
+        }
+        
+        try {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.thefallersgames.progression.api.service;
+
+import org.bukkit.entity.Player;
+
+import com.thefallersgames.progression.api.facade.ItemLockStatus;
+
+import java.util.UUID;
+
+/**
+ * Service interface for telling players about their locked items.
+ * Part of the Hexagonal Architecture pattern - this is a port in the core domain.
+ */
+public interface NotificationService {
+    
+    /**
+     * Tell a player an item is locked, unless they were already told about the same item within the cooldown
+     * 
+     * @param player The player
+     * @param status The item's lock status; its message is only rendered if it is sent
+     * @return true if the message was sent, false if it was throttled
+     */
+    boolean notifyLocked(Player player, ItemLockStatus status);
+    
+    /**
+     * Send a message through the configured channel, without throttling
+     * 
+     * @param player The player
+     * @param message The message to send
+     */
+    void send(Player player, String message);
+    
+    /**
+     * Forget which messages a player was sent, e.g. when they leave
+     * 
+     * @param playerId The player's UUID
+     */
+    void forget(UUID playerId);
+}
@@ -0,0 +1,52 @@
+package com.thefallersgames.progression.api.service;
+
+/**
+ * A single progress update, as passed to the batch methods of the ProgressService.
+ * Instances are immutable and can be reused across batches.
+ */
+public final class ProgressDelta {
+    
+    private final String conditionType;
+    private final String key;
+    private final int amount;
+    
+    /**
+     * Create a new ProgressDelta
+     * 
+     * @param conditionType The type of condition (e.g., "kills", "break")
+     * @param key Additional identifier (e.g., entity type, material)
+     * @param amount The amount of progress to add
+     */
+    public ProgressDelta(String conditionType, String key, int amount) {
+        this.conditionType = conditionType;
+        this.key = key;
+        this.amount = amount;
+    }
+    
+    /**
+     * Get the type of condition the progress counts towards
+     * 
+     * @return The condition type
+     */
+    public String getConditionType() {
+        return conditionType;
+    }
+    
+    /**
+     * Get the identifier of the progress within its condition type
+     * 
+     * @return The key
+     */
+    public String getKey() {
+        return key;
+    }
+    
+    /**
+     * Get the amount of progress to add
+     * 
+     * @return The amount
+     */
+    public int getAmount() {
+        return amount;
+    }
+}
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.thefallersgames.progression.api.service;
 
+import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import com.thefallersgames.progression.api.condition.ProgressCondition;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -22,6 +24,18 @@ public interface ProgressService {
      */
     boolean isItemLocked(Player player, ItemStack item);
     
+    /**
+     * Check if an item is locked for a player
+     * 
+     * @param player The player to check
+     * @param itemId The item ID, as used in the locked-items configuration
+     * @return true if the item is locked, false otherwise
+     */
+    default boolean isItemLocked(Player player, String itemId) {
+        ProgressCondition condition = getItemCondition(itemId);
+        return condition != null && !meetsCondition(player, condition);
+    }
+    
     /**
      * Get the condition associated with an item
      * 
@@ -30,6 +44,36 @@ public interface ProgressService {
      */
     ProgressCondition getItemCondition(ItemStack item);
     
+    /**
+     * Get the condition associated with an item
+     * 
+     * @param itemId The item ID, as used in the locked-items configuration
+     * @return The condition or null if item is not locked
+     */
+    default ProgressCondition getItemCondition(String itemId) {
+        return itemId == null ? null : getAllConditions().get(itemId);
+    }
+    
+    /**
+     * Resolve the ID an item goes by in the locked-items configuration
+     * 
+     * @param item The item to resolve
+     * @return The item ID, or null if no locked item can match the item
+     */
+    default String resolveItemId(ItemStack item) {
+        ProgressCondition condition = getItemCondition(item);
+        if (condition == null) {
+            return null;
+        }
+        
+        for (Map.Entry<String, ProgressCondition> entry : getAllConditions().entrySet()) {
+            if (entry.getValue() == condition) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+    
     /**
      * Get the lock message for a locked item
      * 
@@ -40,7 +84,20 @@ public interface ProgressService {
     String getItemLockMessage(Player player, ItemStack item);
     
     /**
-     * Record progress for a player towards a specific condition type
+     * Get the lock message for a locked item
+     * 
+     * @param player The player
+     * @param itemId The item ID, as used in the locked-items configuration
+     * @return The formatted message to show the player
+     */
+    default String getItemLockMessage(Player player, String itemId) {
+        Material material = itemId == null ? null : Material.matchMaterial(itemId);
+        return getItemLockMessage(player, material == null ? null : new ItemStack(material));
+    }
+    
+    /**
+     * Record progress for a player towards a specific condition type.
+     * Progress on counters that no loaded condition uses is dropped unless tracking.record-all is on.
      * 
      * @param player The player making progress
      * @param conditionType The type of condition (e.g., "kills", "collect")
@@ -49,6 +106,46 @@ public interface ProgressService {
      */
     void recordProgress(Player player, String conditionType, String key, int amount);
     
+    /**
+     * Record several progress updates for a player in one pass, e.g. every block a vein miner broke.
+     * Updates to the same counter are added up and written once, and each item the updates may have
+     * unlocked is checked once after all of them are applied, so an ItemUnlockEvent fires at most once per item.
+     * 
+     * Like the other recordProgress methods this fires events and messages the player, so it must be
+     * called from the main server thread. Schedule a task to get there from an asynchronous context.
+     * The default implementation records the updates one at a time.
+     * 
+     * @param player The player making progress
+     * @param deltas The progress updates
+     */
+    default void recordProgress(Player player, Collection<ProgressDelta> deltas) {
+        if (deltas == null) {
+            return;
+        }
+        
+        for (ProgressDelta delta : deltas) {
+            if (delta != null) {
+                recordProgress(player, delta.getConditionType(), delta.getKey(), delta.getAmount());
+            }
+        }
+    }
+    
+    /**
+     * Record progress updates for many players in one pass. Each player's updates are applied
+     * as by recordProgress(Player, Collection), with the same thread requirements.
+     * 
+     * @param deltas The progress updates of each player
+     */
+    default void recordProgress(Map<Player, ? extends Collection<ProgressDelta>> deltas) {
+        if (deltas == null) {
+            return;
+        }
+        
+        for (Map.Entry<Player, ? extends Collection<ProgressDelta>> entry : deltas.entrySet()) {
+            recordProgress(entry.getKey(), entry.getValue());
+        }
+    }
+    
     /**
      * Check if a player meets a specific condition
      * 
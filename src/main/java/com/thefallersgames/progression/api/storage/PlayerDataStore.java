@@ -0,0 +1,71 @@
+package com.thefallersgames.progression.api.storage;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Storage port for persisted player progress.
+ * Progress is exchanged as plain maps keyed by condition type and then by key, so stores stay independent
+ * of the in-memory representation. Implementations are called from the plugin's I/O threads, never from the
+ * server thread, and must tolerate calls from more than one thread. The only exception is close, which is
+ * called once on the server thread after the I/O threads have stopped.
+ */
+public interface PlayerDataStore {
+    
+    /**
+     * Load a player's saved progress
+     * 
+     * @param playerId The player's UUID
+     * @return The progress values, empty if the player has no saved data
+     * @throws IOException if the data cannot be read
+     */
+    Map<String, Map<String, Integer>> load(UUID playerId) throws IOException;
+    
+    /**
+     * Save a player's progress, replacing everything stored for them. Keys missing from the map are removed,
+     * so a load afterwards returns exactly the saved values; use delete to remove a player entirely.
+     * 
+     * @param playerId The player's UUID
+     * @param progress The progress values
+     * @throws IOException if the data cannot be written
+     */
+    void save(UUID playerId, Map<String, Map<String, Integer>> progress) throws IOException;
+    
+    /**
+     * Save many players at once. Stores that support it write the whole batch as one unit.
+     * 
+     * @param profiles The progress values of each player
+     * @throws IOException if the data cannot be written
+     */
+    default void saveAll(Map<UUID, Map<String, Map<String, Integer>>> profiles) throws IOException {
+        for (Map.Entry<UUID, Map<String, Map<String, Integer>>> entry : profiles.entrySet()) {
+            save(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    /**
+     * Delete all saved progress of a player
+     * 
+     * @param playerId The player's UUID
+     * @throws IOException if the data cannot be deleted
+     */
+    void delete(UUID playerId) throws IOException;
+    
+    /**
+     * Visit every stored player, one at a time
+     * 
+     * @param consumer Receives each player's UUID and progress values
+     * @throws IOException if the data cannot be read
+     */
+    void forEach(BiConsumer<UUID, Map<String, Map<String, Integer>>> consumer) throws IOException;
+    
+    /**
+     * Release any resources held by the store
+     * 
+     * @throws IOException if the store cannot be closed cleanly
+     */
+    default void close() throws IOException {
+    }
+}
@@ -13,8 +13,11 @@ import org.bukkit.inventory.ItemStack;
 
 import com.thefallersgames.progression.Progression;
 import com.thefallersgames.progression.api.facade.UnlockFacade;
+import com.thefallersgames.progression.api.service.NotificationService;
 import com.thefallersgames.progression.api.service.ProgressService;
 import com.thefallersgames.progression.data.PlayerDataManager;
+import com.thefallersgames.progression.service.InventorySweepScheduler;
+import com.thefallersgames.progression.service.ProgressPipeline;
 import com.thefallersgames.progression.util.ItemUtil;
 
 /**
@@ -26,6 +29,7 @@ public class ProgressionCommand implements CommandExecutor {
     private final ProgressService progressService;
     private final UnlockFacade unlockFacade;
     private final PlayerDataManager playerDataManager;
+    private final NotificationService notificationService;
     
     /**
      * Create a new ProgressionCommand
@@ -39,6 +43,7 @@ public class ProgressionCommand implements CommandExecutor {
         this.progressService = progressService;
         this.unlockFacade = unlockFacade;
         this.playerDataManager = plugin.getPlayerDataManager();
+        this.notificationService = plugin.getNotificationService();
     }
     
     @Override
@@ -63,6 +68,10 @@ public class ProgressionCommand implements CommandExecutor {
                 return handleResetCommand(sender, args);
             case "testitem":
                 return handleTestItemCommand(sender, args);
+            case "storage":
+                return handleStorageCommand(sender, args);
+            case "stats":
+                return handleStatsCommand(sender);
             default:
                 showHelp(sender);
                 return true;
@@ -254,7 +263,7 @@ public class ProgressionCommand implements CommandExecutor {
                                ChatColor.GREEN + " for player " + player.getName());
             
             // Notify the player
-            player.sendMessage(ChatColor.GREEN + "You've unlocked " + ChatColor.YELLOW + itemId + ChatColor.GREEN + "!");
+            notificationService.send(player, ChatColor.GREEN + "You've unlocked " + ChatColor.YELLOW + itemId + ChatColor.GREEN + "!");
         }
         
         return true;
@@ -392,7 +401,7 @@ public class ProgressionCommand implements CommandExecutor {
                                ChatColor.GREEN + " for player " + player.getName());
             
             // Notify the player
-            player.sendMessage(ChatColor.RED + "Your item " + ChatColor.YELLOW + itemId + 
+            notificationService.send(player, ChatColor.RED + "Your item " + ChatColor.YELLOW + itemId + 
                               ChatColor.RED + " has been locked!");
         }
         
@@ -434,7 +443,7 @@ public class ProgressionCommand implements CommandExecutor {
                 resetPlayerData(player.getUniqueId());
                 
                 // Notify the player
-                player.sendMessage(ChatColor.RED + "Your progression data has been completely reset by an admin!");
+                notificationService.send(player, ChatColor.RED + "Your progression data has been completely reset by an admin!");
             }
             
             sender.sendMessage(ChatColor.GREEN + "Reset progression data for all online players");
@@ -451,7 +460,7 @@ public class ProgressionCommand implements CommandExecutor {
             sender.sendMessage(ChatColor.GREEN + "Reset progression data for player " + player.getName());
             
             // Notify the player
-            player.sendMessage(ChatColor.RED + "Your progression data has been completely reset by an admin!");
+            notificationService.send(player, ChatColor.RED + "Your progression data has been completely reset by an admin!");
         }
         
         return true;
@@ -463,11 +472,8 @@ public class ProgressionCommand implements CommandExecutor {
      * @param playerId The player's UUID
      */
     private void resetPlayerData(UUID playerId) {
-        // Remove the player from the data manager's memory cache
-        playerDataManager.clearPlayerData(playerId);
-        
-        // Reload empty data
-        playerDataManager.loadPlayerData(playerId);
+        // Drop the saved data and start the player over without reading the store on the server thread
+        playerDataManager.resetPlayerData(playerId);
     }
     
     /**
@@ -521,6 +527,118 @@ public class ProgressionCommand implements CommandExecutor {
         return true;
     }
     
+    /**
+     * Handle the stats command
+     * 
+     * @param sender The command sender
+     * @return true if handled, false otherwise
+     */
+    private boolean handleStatsCommand(CommandSender sender) {
+        if (!sender.hasPermission("progression.admin")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to view statistics");
+            return true;
+        }
+        
+        long hits = playerDataManager.getCacheHits();
+        long lookups = hits + playerDataManager.getCacheMisses();
+        String hitRate = lookups == 0 ? "-" : String.format("%.1f%%", hits * 100.0 / lookups);
+        
+        sender.sendMessage(ChatColor.GOLD + "=== Progression Statistics ===");
+        sender.sendMessage(ChatColor.YELLOW + "Storage: " + ChatColor.WHITE + playerDataManager.getStoreType());
+        sender.sendMessage(ChatColor.YELLOW + "Cached profiles: " + ChatColor.WHITE + playerDataManager.getCacheSize()
+                + " (" + playerDataManager.getOfflineCacheSize() + " offline)");
+        sender.sendMessage(ChatColor.YELLOW + "Cache hit rate: " + ChatColor.WHITE + hitRate
+                + " (" + hits + "/" + lookups + " joins)");
+        sender.sendMessage(ChatColor.YELLOW + "Evictions: " + ChatColor.WHITE + playerDataManager.getEvictionCount());
+        sender.sendMessage(ChatColor.YELLOW + "Pending writes: " + ChatColor.WHITE + playerDataManager.getPendingWriteCount());
+        
+        ProgressPipeline pipeline = plugin.getProgressPipeline();
+        if (pipeline != null) {
+            sender.sendMessage(ChatColor.YELLOW + "Evaluation buffer: " + ChatColor.WHITE + pipeline.getDepth() + "/"
+                    + pipeline.getCapacity() + " (peak " + pipeline.getHighWaterMark() + ")");
+            sender.sendMessage(ChatColor.YELLOW + "Evaluated: " + ChatColor.WHITE + pipeline.getPublishedCount()
+                    + " updates in " + pipeline.getBatchCount() + " batches, " + pipeline.getOverflowCount()
+                    + " applied synchronously on overflow");
+        }
+        
+        InventorySweepScheduler sweeper = plugin.getInventorySweeper();
+        if (sweeper != null) {
+            sender.sendMessage(ChatColor.YELLOW + "Inventory sweeps: " + ChatColor.WHITE + sweeper.getSweepCount()
+                    + " run, " + sweeper.getSkippedCount() + " skipped of " + sweeper.getRequestCount() + " requested");
+        }
+        return true;
+    }
+    
+    /**
+     * Handle the storage command
+     * 
+     * @param sender The command sender
+     * @param args Command arguments
+     * @return true if handled, false otherwise
+     */
+    private boolean handleStorageCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("progression.admin")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to manage storage");
+            return true;
+        }
+        
+        if (args.length >= 2 && args[1].equalsIgnoreCase("compact")) {
+            return handleStorageCompact(sender);
+        }
+        
+        if (args.length < 3 || !args[1].equalsIgnoreCase("import")) {
+            sender.sendMessage(ChatColor.RED + "Usage: /prog storage import <yaml/binary/sqlite/region>");
+            sender.sendMessage(ChatColor.RED + "Usage: /prog storage compact");
+            sender.sendMessage(ChatColor.YELLOW + "Active storage: " + playerDataManager.getStoreType());
+            return true;
+        }
+        
+        // Imported data would be overwritten by the next save of anyone online
+        if (!Bukkit.getOnlinePlayers().isEmpty()) {
+            sender.sendMessage(ChatColor.RED + "Storage can only be imported while no players are online");
+            return true;
+        }
+        
+        String source = args[2].toLowerCase();
+        sender.sendMessage(ChatColor.YELLOW + "Importing player data from " + source + " into "
+                + playerDataManager.getStoreType() + "...");
+        
+        playerDataManager.importFrom(source).whenComplete((count, error) ->
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    sender.sendMessage(ChatColor.RED + "Import failed: " + cause.getMessage());
+                } else {
+                    sender.sendMessage(ChatColor.GREEN + "Imported " + count + " players from " + source);
+                }
+            }));
+        
+        return true;
+    }
+    
+    /**
+     * Handle the storage compact subcommand
+     * 
+     * @param sender The command sender
+     * @return true if handled, false otherwise
+     */
+    private boolean handleStorageCompact(CommandSender sender) {
+        sender.sendMessage(ChatColor.YELLOW + "Compacting player data storage...");
+        
+        playerDataManager.compactStore().whenComplete((reclaimed, error) ->
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    sender.sendMessage(ChatColor.RED + "Compaction failed: " + cause.getMessage());
+                } else {
+                    sender.sendMessage(ChatColor.GREEN + "Compacted player data storage, reclaimed "
+                            + (reclaimed / 1024) + " KB");
+                }
+            }));
+        
+        return true;
+    }
+    
     /**
      * Show the help message
      * 
@@ -556,6 +674,15 @@ public class ProgressionCommand implements CommandExecutor {
             
             sender.sendMessage(ChatColor.YELLOW + "/prog testitem " + 
                               ChatColor.WHITE + "- Test custom item detection (1.21.5+ ItemModel API)");
+            
+            sender.sendMessage(ChatColor.YELLOW + "/prog stats " + 
+                              ChatColor.WHITE + "- Show player data cache and storage statistics");
+            
+            sender.sendMessage(ChatColor.YELLOW + "/prog storage import <yaml/binary/sqlite/region> " + 
+                              ChatColor.WHITE + "- Copy player data from another storage into the active one");
+            
+            sender.sendMessage(ChatColor.YELLOW + "/prog storage compact " + 
+                              ChatColor.WHITE + "- Reclaim unused space in region storage");
         }
         
         // Add a hint about permissions if the player doesn't have admin access
@@ -4,6 +4,7 @@ import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 
+import com.thefallersgames.progression.api.condition.EvaluationCost;
 import com.thefallersgames.progression.api.condition.ProgressCondition;
 import com.thefallersgames.progression.data.PlayerDataManager;
 
@@ -16,6 +17,7 @@ public class BreakCondition implements ProgressCondition {
     private final Material materialType;
     private final int requiredAmount;
     private final String materialName; // Store the actual material name used for lookups
+    private final int slot; // Counter slot of the tracked material name
     
     /**
      * Create a new BreakCondition from configuration
@@ -36,6 +38,9 @@ public class BreakCondition implements ProgressCondition {
         }
         
         this.requiredAmount = config.getInt("amount", 100);
+        
+        // Resolve the counter once so progress reads skip the name lookups
+        this.slot = dataManager.getCounterRegistry().register("break", this.materialName);
     }
     
     @Override
@@ -45,8 +50,7 @@ public class BreakCondition implements ProgressCondition {
     
     @Override
     public int getCurrentProgress(Player player) {
-        // Use the consistent material name for lookups
-        return dataManager.getProgress(player.getUniqueId(), "break", materialName);
+        return dataManager.getProgress(player.getUniqueId(), slot);
     }
     
     @Override
@@ -59,6 +63,11 @@ public class BreakCondition implements ProgressCondition {
         return "Break " + requiredAmount + " " + materialName + " blocks";
     }
     
+    @Override
+    public EvaluationCost getEvaluationCost() {
+        return EvaluationCost.COUNTER;
+    }
+    
     /**
      * Get the material type for this condition
      * 
@@ -76,4 +85,13 @@ public class BreakCondition implements ProgressCondition {
     public String getMaterialName() {
         return materialName;
     }
+    
+    /**
+     * Get the counter slot of the tracked material name
+     * 
+     * @return The slot in the counter registry
+     */
+    public int getSlot() {
+        return slot;
+    }
 } 
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 
+import com.thefallersgames.progression.api.condition.EvaluationCost;
 import com.thefallersgames.progression.api.condition.ProgressCondition;
 import com.thefallersgames.progression.data.PlayerDataManager;
 
@@ -17,6 +18,7 @@ public class CollectCondition implements ProgressCondition {
     private Material materialType;
     private final int requiredAmount;
     private final String materialName; // Store the actual material name used for lookups
+    private final int slot; // Counter slot of the tracked material name
     private final boolean isCustomItem; // Flag indicating if this is a custom namespaced item
     
     /**
@@ -50,6 +52,9 @@ public class CollectCondition implements ProgressCondition {
         }
         
         this.requiredAmount = config.getInt("amount", 50);
+        
+        // Resolve the counter once so progress reads skip the name lookups
+        this.slot = dataManager.getCounterRegistry().register("collect", this.materialName);
     }
     
     @Override
@@ -59,8 +64,7 @@ public class CollectCondition implements ProgressCondition {
     
     @Override
     public int getCurrentProgress(Player player) {
-        // Use the consistent material name for lookups
-        return dataManager.getProgress(player.getUniqueId(), "collect", materialName);
+        return dataManager.getProgress(player.getUniqueId(), slot);
     }
     
     @Override
@@ -73,6 +77,11 @@ public class CollectCondition implements ProgressCondition {
         return "Collect " + requiredAmount + " " + materialName;
     }
     
+    @Override
+    public EvaluationCost getEvaluationCost() {
+        return EvaluationCost.COUNTER;
+    }
+    
     /**
      * Get the material type for this condition
      * 
@@ -99,4 +108,13 @@ public class CollectCondition implements ProgressCondition {
     public String getMaterialName() {
         return materialName;
     }
+    
+    /**
+     * Get the counter slot of the tracked material name
+     * 
+     * @return The slot in the counter registry
+     */
+    public int getSlot() {
+        return slot;
+    }
 } 
\ No newline at end of file
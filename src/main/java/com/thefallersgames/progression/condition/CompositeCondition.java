@@ -6,23 +6,44 @@ import org.bukkit.configuration.MemoryConfiguration;
 import org.bukkit.configuration.MemorySection;
 import org.bukkit.entity.Player;
 
+import com.thefallersgames.progression.api.condition.EvaluationCost;
 import com.thefallersgames.progression.api.condition.ProgressCondition;
 import com.thefallersgames.progression.api.factory.ConditionFactory;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Condition implementation that evaluates multiple conditions with an AND operator.
- * All conditions must be met for the composite condition to be met.
- * Prerequisites must be met before progress on other conditions starts counting.
+ * Condition implementation that combines multiple conditions. Composites can be nested.
+ * The mode sets how many sub-conditions must be met: ALL (the default) needs every one of them,
+ * ANY needs one, and AT_LEAST needs the configured count.
+ * 
+ * Sub-conditions are evaluated in order of their EvaluationCost, cheapest first, as sorted when the
+ * condition is loaded. Evaluation stops once the result is decided, so a counter that settles it
+ * short-circuits before prerequisites or placeholders are checked.
+ * 
+ * In ALL mode the reported progress is that of the first unmet prerequisite, then of the first unmet
+ * other condition; the partial modes report how many sub-conditions are met.
  */
 public class CompositeCondition implements ProgressCondition {
     
+    /**
+     * How many sub-conditions must be met
+     */
+    public enum Mode {
+        ALL,
+        ANY,
+        AT_LEAST
+    }
+    
     private final List<ProgressCondition> conditions;
     private final List<ProgressCondition> prerequisites;
     private final List<ProgressCondition> otherConditions;
+    private final List<ProgressCondition> evaluationOrder;
+    private final Mode mode;
+    private final int requiredCount;
     
     /**
      * Create a new CompositeCondition from configuration
@@ -35,6 +56,13 @@ public class CompositeCondition implements ProgressCondition {
         this.prerequisites = new ArrayList<>();
         this.otherConditions = new ArrayList<>();
         
+        String modeName = config.getString("mode", "all").toUpperCase().replace('-', '_');
+        try {
+            this.mode = Mode.valueOf(modeName);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid composite mode: " + config.getString("mode"));
+        }
+        
         // Get the conditions list
         List<ConfigurationSection> conditionSections = new ArrayList<>();
         
@@ -95,34 +123,61 @@ public class CompositeCondition implements ProgressCondition {
         if (conditions.isEmpty()) {
             Bukkit.getLogger().warning("[Progression] Composite condition has no valid sub-conditions!");
         }
+        
+        if (mode == Mode.ALL) {
+            this.requiredCount = conditions.size();
+        } else if (mode == Mode.ANY) {
+            this.requiredCount = Math.min(1, conditions.size());
+        } else {
+            this.requiredCount = config.getInt("count", 1);
+            if (requiredCount < 1 || requiredCount > conditions.size()) {
+                throw new IllegalArgumentException("Composite count must be between 1 and " + conditions.size()
+                        + ", got " + requiredCount);
+            }
+        }
+        
+        // Stable sort, so sub-conditions of the same cost keep their configured order
+        this.evaluationOrder = new ArrayList<>(conditions);
+        this.evaluationOrder.sort(Comparator.comparing(ProgressCondition::getEvaluationCost));
     }
     
     @Override
     public boolean isMet(Player player) {
-        // All conditions must be met (AND logic)
         if (conditions.isEmpty()) {
             return true; // No conditions means it's met by default
         }
         
-        // First check all prerequisite conditions
-        for (ProgressCondition condition : prerequisites) {
-            if (!condition.isMet(player)) {
-                return false; // Prerequisites must be met first
-            }
-        }
+        // Stop as soon as the result is decided: enough conditions met, or too few left to get there
+        int met = 0;
+        int remaining = evaluationOrder.size();
         
-        // Then check all other conditions
-        for (ProgressCondition condition : otherConditions) {
-            if (!condition.isMet(player)) {
+        for (ProgressCondition condition : evaluationOrder) {
+            remaining--;
+            if (condition.isMet(player)) {
+                if (++met >= requiredCount) {
+                    return true;
+                }
+            } else if (met + remaining < requiredCount) {
                 return false;
             }
         }
         
-        return true;
+        return met >= requiredCount;
     }
     
     @Override
     public int getCurrentProgress(Player player) {
+        // Partial modes count the sub-conditions that are met
+        if (mode != Mode.ALL) {
+            int met = 0;
+            for (ProgressCondition condition : evaluationOrder) {
+                if (condition.isMet(player)) {
+                    met++;
+                }
+            }
+            return Math.min(met, requiredCount);
+        }
+        
         // First check if all prerequisites are met
         for (ProgressCondition prerequisite : prerequisites) {
             if (!prerequisite.isMet(player)) {
@@ -147,6 +202,10 @@ public class CompositeCondition implements ProgressCondition {
     
     @Override
     public int getRequiredProgress() {
+        if (mode != Mode.ALL) {
+            return requiredCount;
+        }
+        
         // First check prerequisites
         for (ProgressCondition prerequisite : prerequisites) {
             // If we have prerequisites, report the first one's required progress
@@ -163,11 +222,23 @@ public class CompositeCondition implements ProgressCondition {
     
     @Override
     public String getDescription() {
-        StringBuilder description = new StringBuilder("Meet all conditions: ");
+        StringBuilder description;
+        String separator;
+        
+        if (mode == Mode.ALL) {
+            description = new StringBuilder("Meet all conditions: ");
+            separator = " AND ";
+        } else if (mode == Mode.ANY) {
+            description = new StringBuilder("Meet any condition: ");
+            separator = " OR ";
+        } else {
+            description = new StringBuilder("Meet at least " + requiredCount + " conditions: ");
+            separator = ", ";
+        }
         
         for (int i = 0; i < conditions.size(); i++) {
             if (i > 0) {
-                description.append(" AND ");
+                description.append(separator);
             }
             description.append(conditions.get(i).getDescription());
         }
@@ -175,6 +246,47 @@ public class CompositeCondition implements ProgressCondition {
         return description.toString();
     }
     
+    @Override
+    public EvaluationCost getEvaluationCost() {
+        EvaluationCost cost = EvaluationCost.COUNTER;
+        for (ProgressCondition condition : conditions) {
+            cost = cost.max(condition.getEvaluationCost());
+        }
+        return cost;
+    }
+    
+    /**
+     * Get how many sub-conditions must be met
+     * 
+     * @return The mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+    
+    /**
+     * Get the number of sub-conditions that must be met
+     * 
+     * @return All of them in ALL mode, 1 in ANY mode, the configured count in AT_LEAST mode
+     */
+    public int getRequiredCount() {
+        return requiredCount;
+    }
+    
+    /**
+     * Get the condition whose progress stands for this one's in messages and placeholders
+     * 
+     * @return This condition in ANY and AT_LEAST mode, where progress counts the sub-conditions met;
+     *         in ALL mode the first sub-condition that isn't a prerequisite, or null if there is none
+     */
+    public ProgressCondition getProgressCondition() {
+        if (mode != Mode.ALL) {
+            return this;
+        }
+        
+        return otherConditions.isEmpty() ? null : otherConditions.get(0);
+    }
+    
     /**
      * Check if all prerequisites are met for a player
      * 
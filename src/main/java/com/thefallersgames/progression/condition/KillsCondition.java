@@ -4,6 +4,7 @@ import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 
+import com.thefallersgames.progression.api.condition.EvaluationCost;
 import com.thefallersgames.progression.api.condition.ProgressCondition;
 import com.thefallersgames.progression.data.PlayerDataManager;
 
@@ -16,6 +17,7 @@ public class KillsCondition implements ProgressCondition {
     private final EntityType entityType;
     private final int requiredAmount;
     private final String entityName; // Store the actual entity name used for lookups
+    private final int slot; // Counter slot of the tracked entity name
     
     /**
      * Create a new KillsCondition from configuration
@@ -36,6 +38,9 @@ public class KillsCondition implements ProgressCondition {
         }
         
         this.requiredAmount = config.getInt("amount", 50);
+        
+        // Resolve the counter once so progress reads skip the name lookups
+        this.slot = dataManager.getCounterRegistry().register("kills", this.entityName);
     }
     
     @Override
@@ -45,8 +50,7 @@ public class KillsCondition implements ProgressCondition {
     
     @Override
     public int getCurrentProgress(Player player) {
-        // Use the consistent entity name for lookups
-        return dataManager.getProgress(player.getUniqueId(), "kills", entityName);
+        return dataManager.getProgress(player.getUniqueId(), slot);
     }
     
     @Override
@@ -59,6 +63,11 @@ public class KillsCondition implements ProgressCondition {
         return "Kill " + requiredAmount + " " + entityName + "s";
     }
     
+    @Override
+    public EvaluationCost getEvaluationCost() {
+        return EvaluationCost.COUNTER;
+    }
+    
     /**
      * Get the entity type for this condition
      * 
@@ -76,4 +85,13 @@ public class KillsCondition implements ProgressCondition {
     public String getEntityName() {
         return entityName;
     }
+    
+    /**
+     * Get the counter slot of the tracked entity name
+     * 
+     * @return The slot in the counter registry
+     */
+    public int getSlot() {
+        return slot;
+    }
 } 
\ No newline at end of file
@@ -4,16 +4,18 @@ import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 
+import com.thefallersgames.progression.adapter.PlaceholderValueCache;
+import com.thefallersgames.progression.api.condition.EvaluationCost;
 import com.thefallersgames.progression.api.condition.ProgressCondition;
-import com.thefallersgames.progression.api.adapter.PlaceholderAdapter;
 
 /**
  * Condition implementation that uses PlaceholderAPI values.
  * This is an example of the Adapter pattern, using PlaceholderAdapter to abstract the external API.
+ * Values are read through a PlaceholderValueCache, so repeated checks don't re-run the placeholder.
  */
 public class PlaceholderCondition implements ProgressCondition {
     
-    private final PlaceholderAdapter placeholderAdapter;
+    private final PlaceholderValueCache valueCache;
     private final String placeholder;
     private final double requiredAmount;
     
@@ -21,10 +23,10 @@ public class PlaceholderCondition implements ProgressCondition {
      * Create a new PlaceholderCondition from configuration
      * 
      * @param config The configuration section
-     * @param placeholderAdapter The adapter for PlaceholderAPI
+     * @param valueCache The cache of sampled placeholder values
      */
-    public PlaceholderCondition(ConfigurationSection config, PlaceholderAdapter placeholderAdapter) {
-        this.placeholderAdapter = placeholderAdapter;
+    public PlaceholderCondition(ConfigurationSection config, PlaceholderValueCache valueCache) {
+        this.valueCache = valueCache;
         
         String placeholderName = config.getString("placeholder");
         if (placeholderName == null) {
@@ -66,12 +68,7 @@ public class PlaceholderCondition implements ProgressCondition {
      * @return The current progress value
      */
     public double getCurrentProgressDouble(Player player) {
-        String value = placeholderAdapter.setPlaceholders(player, placeholder);
-        try {
-            return Double.parseDouble(value);
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+        return valueCache.getValue(player, placeholder);
     }
     
     @Override
@@ -84,6 +81,11 @@ public class PlaceholderCondition implements ProgressCondition {
         return "Reach " + requiredAmount + " " + placeholder;
     }
     
+    @Override
+    public EvaluationCost getEvaluationCost() {
+        return EvaluationCost.EXTERNAL;
+    }
+    
     /**
      * Get the placeholder string for this condition
      * 
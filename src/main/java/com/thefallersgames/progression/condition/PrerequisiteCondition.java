@@ -4,8 +4,8 @@ import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
 
+import com.thefallersgames.progression.api.condition.EvaluationCost;
 import com.thefallersgames.progression.api.condition.ProgressCondition;
 import com.thefallersgames.progression.api.service.ProgressService;
 import com.thefallersgames.progression.api.factory.ConditionFactory;
@@ -18,6 +18,7 @@ public class PrerequisiteCondition implements ProgressCondition {
     
     private final ProgressService progressService;
     private final Material prerequisiteItem;
+    private final String prerequisiteItemId;
     private ProgressCondition additionalCondition;
     
     /**
@@ -35,6 +36,7 @@ public class PrerequisiteCondition implements ProgressCondition {
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid prerequisite item: " + itemName);
         }
+        this.prerequisiteItemId = prerequisiteItem.name().toLowerCase();
         
         // Initialize with no additional condition
         this.additionalCondition = null;
@@ -56,6 +58,7 @@ public class PrerequisiteCondition implements ProgressCondition {
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid prerequisite item: " + itemName);
         }
+        this.prerequisiteItemId = prerequisiteItem.name().toLowerCase();
         
         // Check for additional direct condition
         ConfigurationSection additionalConfig = config.getConfigurationSection("additional_condition");
@@ -73,17 +76,8 @@ public class PrerequisiteCondition implements ProgressCondition {
     
     @Override
     public boolean isMet(Player player) {
-        // First check if the prerequisite item is unlocked
-        ItemStack prerequisite = new ItemStack(prerequisiteItem);
-        ProgressCondition condition = progressService.getItemCondition(prerequisite);
-        
-        boolean prerequisiteMet;
-        if (condition == null) {
-            // If the prerequisite item doesn't have a condition, consider it automatically met
-            prerequisiteMet = true;
-        } else {
-            prerequisiteMet = progressService.meetsCondition(player, condition);
-        }
+        // First check if the prerequisite item is unlocked; an item without a condition never is locked
+        boolean prerequisiteMet = !progressService.isItemLocked(player, prerequisiteItemId);
         
         // If we have an additional condition, check that too
         if (additionalCondition != null) {
@@ -126,6 +120,14 @@ public class PrerequisiteCondition implements ProgressCondition {
         return desc;
     }
     
+    @Override
+    public EvaluationCost getEvaluationCost() {
+        if (additionalCondition != null) {
+            return EvaluationCost.PREREQUISITE.max(additionalCondition.getEvaluationCost());
+        }
+        return EvaluationCost.PREREQUISITE;
+    }
+    
     /**
      * Get the prerequisite item for this condition
      * 
@@ -134,4 +136,22 @@ public class PrerequisiteCondition implements ProgressCondition {
     public Material getPrerequisiteItem() {
         return prerequisiteItem;
     }
+    
+    /**
+     * Get the ID of the prerequisite item, as used in the locked-items configuration
+     * 
+     * @return The prerequisite item ID
+     */
+    public String getPrerequisiteItemId() {
+        return prerequisiteItemId;
+    }
+    
+    /**
+     * Get the additional condition that must be met along with the prerequisite
+     * 
+     * @return The additional condition, or null if there is none
+     */
+    public ProgressCondition getAdditionalCondition() {
+        return additionalCondition;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,168 @@
+package com.thefallersgames.progression.data;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a player's progress.
+ * 
+ * Layout: magic, varint version, a dictionary of every type and key name,
+ * then each type as a dictionary index followed by its (key index, value) pairs.
+ * All integers after the magic are varints; counter values are zigzag encoded.
+ */
+public final class BinaryProfileCodec {
+    
+    /** File signature, "PRGP" */
+    public static final int MAGIC = 0x50524750;
+    
+    /** Current format version, bump when the layout changes */
+    public static final int VERSION = 1;
+    
+    private BinaryProfileCodec() {
+    }
+    
+    /**
+     * Encode progress values
+     * 
+     * @param out The stream to write to
+     * @param progress The progress values, keyed by condition type and then by key
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(OutputStream out, Map<String, Map<String, Integer>> progress) throws IOException {
+        // Type and key names repeat across players but rarely within one, so index them once per file
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Integer>> typeEntry : progress.entrySet()) {
+            dictionary.putIfAbsent(typeEntry.getKey(), dictionary.size());
+            for (String key : typeEntry.getValue().keySet()) {
+                dictionary.putIfAbsent(key, dictionary.size());
+            }
+        }
+        
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        writeVarInt(data, VERSION);
+        
+        writeVarInt(data, dictionary.size());
+        for (String word : dictionary.keySet()) {
+            byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(data, bytes.length);
+            data.write(bytes);
+        }
+        
+        writeVarInt(data, progress.size());
+        for (Map.Entry<String, Map<String, Integer>> typeEntry : progress.entrySet()) {
+            writeVarInt(data, dictionary.get(typeEntry.getKey()));
+            writeVarInt(data, typeEntry.getValue().size());
+            
+            for (Map.Entry<String, Integer> entry : typeEntry.getValue().entrySet()) {
+                writeVarInt(data, dictionary.get(entry.getKey()));
+                writeVarInt(data, zigzag(entry.getValue()));
+            }
+        }
+        
+        data.flush();
+    }
+    
+    /**
+     * Decode progress values
+     * 
+     * @param in The stream to read from
+     * @return The progress values, keyed by condition type and then by key
+     * @throws IOException if the stream is truncated, corrupt or from a newer version
+     */
+    public static Map<String, Map<String, Integer>> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a binary progression profile");
+        }
+        
+        int version = readVarInt(data);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported profile format version " + version);
+        }
+        
+        int dictionarySize = readVarInt(data);
+        String[] dictionary = new String[dictionarySize];
+        for (int i = 0; i < dictionarySize; i++) {
+            byte[] bytes = new byte[readVarInt(data)];
+            data.readFully(bytes);
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        
+        Map<String, Map<String, Integer>> progress = new HashMap<>();
+        int typeCount = readVarInt(data);
+        for (int i = 0; i < typeCount; i++) {
+            String type = lookup(dictionary, readVarInt(data));
+            int keyCount = readVarInt(data);
+            Map<String, Integer> typeProgress = new HashMap<>();
+            
+            for (int j = 0; j < keyCount; j++) {
+                String key = lookup(dictionary, readVarInt(data));
+                typeProgress.put(key, unzigzag(readVarInt(data)));
+            }
+            
+            progress.put(type, typeProgress);
+        }
+        
+        return progress;
+    }
+    
+    /**
+     * Write an unsigned LEB128 varint
+     * 
+     * @param out The output to write to
+     * @param value The value, treated as unsigned
+     * @throws IOException if the output cannot be written
+     */
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+    
+    /**
+     * Read an unsigned LEB128 varint
+     * 
+     * @param in The input to read from
+     * @return The value
+     * @throws IOException if the input is truncated or the varint is longer than five bytes
+     */
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+    
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+    
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static String lookup(String[] dictionary, int index) throws IOException {
+        if (index < 0 || index >= dictionary.length) {
+            throw new IOException("Dictionary index out of range: " + index);
+        }
+        return dictionary[index];
+    }
+}
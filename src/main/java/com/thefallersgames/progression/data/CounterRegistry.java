@@ -0,0 +1,176 @@
+package com.thefallersgames.progression.data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every progress counter that a condition tracks a dense int slot.
+ * Profiles keep registered counters in arrays indexed by slot, so conditions and listeners
+ * resolve their slot once and then read and write counters without hashing or boxing.
+ * 
+ * Slots are only ever added, never reused, so a slot stays valid for the life of the plugin,
+ * including across config reloads. Lookups are lock-free and safe from any thread.
+ * 
+ * The registry also holds the tracking filter: the slots that a currently loaded condition uses.
+ * Unless every counter is recorded, progress outside that set is dropped before it reaches
+ * the player data, so servers don't keep counters for every block and mob nothing depends on.
+ */
+public class CounterRegistry {
+    
+    private final Map<String, Map<String, Integer>> slots;
+    private volatile String[] types;
+    private volatile String[] keys;
+    private volatile int size;
+    private volatile BitSet tracked;
+    private volatile boolean recordingAll;
+    // Bumped whenever the slots or the tracking filter change, so callers know to rebuild caches
+    private volatile int version;
+    
+    /**
+     * Create a new, empty CounterRegistry
+     */
+    public CounterRegistry() {
+        this.slots = new ConcurrentHashMap<>();
+        this.types = new String[0];
+        this.keys = new String[0];
+        this.tracked = new BitSet();
+    }
+    
+    /**
+     * Get the slot of a counter, assigning a new one if it isn't registered yet
+     * 
+     * @param conditionType The type of condition
+     * @param key The specific key for the condition
+     * @return The counter's slot
+     */
+    public synchronized int register(String conditionType, String key) {
+        int existing = getSlot(conditionType, key);
+        if (existing >= 0) {
+            return existing;
+        }
+        
+        int slot = keys.length;
+        String[] newTypes = Arrays.copyOf(types, slot + 1);
+        String[] newKeys = Arrays.copyOf(keys, slot + 1);
+        newTypes[slot] = conditionType;
+        newKeys[slot] = key;
+        
+        // Publish the names, then the slot, then the size, so a reader that sees the new size
+        // can look the slot up and one that finds the slot can resolve its names
+        types = newTypes;
+        keys = newKeys;
+        slots.computeIfAbsent(conditionType, k -> new ConcurrentHashMap<>()).put(key, slot);
+        size = slot + 1;
+        version++;
+        return slot;
+    }
+    
+    /**
+     * Get the slot of a counter
+     * 
+     * @param conditionType The type of condition
+     * @param key The specific key for the condition
+     * @return The counter's slot, or -1 if no condition tracks it
+     */
+    public int getSlot(String conditionType, String key) {
+        Map<String, Integer> typeSlots = slots.get(conditionType);
+        
+        if (typeSlots == null) {
+            return -1;
+        }
+        
+        Integer slot = typeSlots.get(key);
+        return slot == null ? -1 : slot;
+    }
+    
+    /**
+     * Get the condition type of a slot
+     * 
+     * @param slot The slot
+     * @return The condition type
+     */
+    public String getType(int slot) {
+        return types[slot];
+    }
+    
+    /**
+     * Get the key of a slot
+     * 
+     * @param slot The slot
+     * @return The key
+     */
+    public String getKey(int slot) {
+        return keys[slot];
+    }
+    
+    /**
+     * Get the number of registered slots. This only grows, so callers can cache
+     * slot lookups and refresh them when it changes.
+     * 
+     * @return The slot count
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Replace the set of slots that loaded conditions use
+     * 
+     * @param slots The tracked slots; the registry keeps its own copy
+     */
+    public synchronized void setTracked(BitSet slots) {
+        tracked = (BitSet) slots.clone();
+        version++;
+    }
+    
+    /**
+     * Set whether progress is recorded for every counter, tracked or not
+     * 
+     * @param recordingAll true to record every counter, e.g. for raw stats shown through placeholders
+     */
+    public synchronized void setRecordingAll(boolean recordingAll) {
+        this.recordingAll = recordingAll;
+        version++;
+    }
+    
+    /**
+     * Check if a loaded condition uses a slot
+     * 
+     * @param slot The slot
+     * @return true if the slot is tracked
+     */
+    public boolean isTracked(int slot) {
+        return slot >= 0 && tracked.get(slot);
+    }
+    
+    /**
+     * Check if progress on a counter should be recorded
+     * 
+     * @param conditionType The type of condition
+     * @param key The specific key for the condition
+     * @return true if every counter is recorded or a loaded condition uses this one
+     */
+    public boolean isRecorded(String conditionType, String key) {
+        return recordingAll || isTracked(getSlot(conditionType, key));
+    }
+    
+    /**
+     * Check if progress is recorded for every counter
+     * 
+     * @return true if the tracking filter is off
+     */
+    public boolean isRecordingAll() {
+        return recordingAll;
+    }
+    
+    /**
+     * Get the version of the slots and tracking filter
+     * 
+     * @return A number that changes whenever a slot is registered or the filter is replaced
+     */
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,108 @@
+package com.thefallersgames.progression.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import com.thefallersgames.progression.api.storage.PlayerDataStore;
+
+/**
+ * Player data store that keeps one file per player in the playerdata folder.
+ * This is the default store; the file format is chosen with storage.format.
+ */
+public class FilePlayerDataStore implements PlayerDataStore {
+    
+    private final File dataFolder;
+    private final ProfileFormat format;
+    
+    /**
+     * Create a new FilePlayerDataStore
+     * 
+     * @param dataFolder The player data folder
+     * @param format The format to read and write
+     */
+    public FilePlayerDataStore(File dataFolder, ProfileFormat format) {
+        this.dataFolder = dataFolder;
+        this.format = format;
+        
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+    }
+    
+    @Override
+    public Map<String, Map<String, Integer>> load(UUID playerId) throws IOException {
+        File playerFile = format.getFile(dataFolder, playerId);
+        
+        if (playerFile.exists()) {
+            return format.read(playerFile);
+        }
+        
+        // Fall back to a file that was not migrated to the configured format
+        for (ProfileFormat other : ProfileFormat.values()) {
+            File otherFile = other.getFile(dataFolder, playerId);
+            if (otherFile.exists()) {
+                return other.read(otherFile);
+            }
+        }
+        
+        return new HashMap<>();
+    }
+    
+    @Override
+    public void save(UUID playerId, Map<String, Map<String, Integer>> progress) throws IOException {
+        format.write(format.getFile(dataFolder, playerId), progress);
+    }
+    
+    @Override
+    public void delete(UUID playerId) throws IOException {
+        for (ProfileFormat other : ProfileFormat.values()) {
+            File playerFile = other.getFile(dataFolder, playerId);
+            if (playerFile.exists() && !playerFile.delete()) {
+                throw new IOException("Could not delete " + playerFile.getName());
+            }
+        }
+    }
+    
+    @Override
+    public void forEach(BiConsumer<UUID, Map<String, Map<String, Integer>>> consumer) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dataFolder.toPath(), "*" + format.getExtension())) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                UUID playerId;
+                
+                try {
+                    playerId = UUID.fromString(fileName.substring(0, fileName.length() - format.getExtension().length()));
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                
+                consumer.accept(playerId, format.read(file.toFile()));
+            }
+        }
+    }
+    
+    /**
+     * Get the folder holding the player files
+     * 
+     * @return The player data folder
+     */
+    public File getDataFolder() {
+        return dataFolder;
+    }
+    
+    /**
+     * Get the format this store writes
+     * 
+     * @return The file format
+     */
+    public ProfileFormat getFormat() {
+        return format;
+    }
+}
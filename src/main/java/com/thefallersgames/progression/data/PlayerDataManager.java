@@ -2,138 +2,861 @@ package com.thefallersgames.progression.data;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.thefallersgames.progression.api.storage.PlayerDataStore;
 
 /**
  * Manages player progression data storage and retrieval.
+ * Persistence goes through a PlayerDataStore; reads happen on a dedicated I/O pool so joins never touch
+ * storage on the server thread. Changes are persisted write-behind: dirty profiles are snapshotted on the
+ * main thread and written in batches by the pool, with repeated saves of the same player coalesced.
+ * Between saves every change is also appended to a ProgressJournal, which is replayed after a crash.
+ * Progress reads are lock-free and may come from any thread, e.g. asynchronous placeholder requests.
  */
 public class PlayerDataManager {
     
     private final JavaPlugin plugin;
     private final File dataFolder;
-    private final Map<UUID, Map<String, Map<String, Integer>>> playerData;
+    private final String storeType;
+    private final CounterRegistry counterRegistry;
+    private final PlayerDataStore store;
+    private final Map<UUID, PlayerProfile> playerData;
+    private final Map<UUID, Long> offlineSince;
+    private final Map<UUID, CompletableFuture<PlayerProfile>> pendingLoads;
+    private final Map<UUID, Map<String, Map<String, Integer>>> pendingWrites;
+    private final AtomicBoolean draining;
+    private final ExecutorService ioExecutor;
+    private final long loadTimeoutMillis;
+    private final boolean denyOnLoadTimeout;
+    private final String loadTimeoutMessage;
+    private final long autosaveIntervalTicks;
+    private final long shutdownTimeoutSeconds;
+    private final long compactIntervalTicks;
+    private final ProgressJournal journal;
+    private BukkitTask autosaveTask;
+    private final long evictionGraceMillis;
+    private final AtomicLong cacheHits;
+    private final AtomicLong cacheMisses;
+    private final AtomicLong evictions;
+    private BukkitTask compactTask;
+    private BukkitTask evictionTask;
+    
+    // How often quit players are checked for eviction
+    private static final long EVICTION_CHECK_TICKS = 20L * 15;
+    
+    /**
+     * Progress type under which unlocks are persisted, keyed by item ID. The value is a stamp of the
+     * item's condition when it was unlocked, or 0 once it is locked again, so a join can trust the
+     * unlock without re-evaluating the condition as long as the condition hasn't changed since.
+     */
+    public static final String UNLOCKS_TYPE = "unlocked";
+    
+    // Queued in place of a snapshot to delete a player's data in write order
+    private static final Map<String, Map<String, Integer>> DELETED = Collections.unmodifiableMap(new HashMap<>());
     
     /**
      * Create a new PlayerDataManager
      * 
      * @param plugin The plugin instance
+     * @throws IllegalStateException if the configured storage cannot be opened
      */
     public PlayerDataManager(JavaPlugin plugin) {
         this.plugin = plugin;
         this.dataFolder = new File(plugin.getDataFolder(), "playerdata");
+        this.counterRegistry = new CounterRegistry();
         this.playerData = new ConcurrentHashMap<>();
+        this.offlineSince = new ConcurrentHashMap<>();
+        this.cacheHits = new AtomicLong();
+        this.cacheMisses = new AtomicLong();
+        this.evictions = new AtomicLong();
+        this.pendingLoads = new ConcurrentHashMap<>();
+        this.pendingWrites = new ConcurrentHashMap<>();
+        this.draining = new AtomicBoolean();
         
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
+        FileConfiguration config = plugin.getConfig();
+        this.loadTimeoutMillis = Math.max(0, config.getLong("storage.load-timeout-ms", 5000));
+        this.denyOnLoadTimeout = !"read-only".equalsIgnoreCase(config.getString("storage.load-timeout-action", "deny"));
+        this.loadTimeoutMessage = config.getString("storage.load-timeout-message",
+                "Your progression data is still loading, please try again in a moment.");
+        this.autosaveIntervalTicks = Math.max(0, config.getLong("storage.autosave-interval-seconds", 60)) * 20L;
+        this.shutdownTimeoutSeconds = Math.max(1, config.getLong("storage.shutdown-timeout-seconds", 30));
+        this.evictionGraceMillis = Math.max(0, config.getLong("storage.cache.grace-period-seconds", 300)) * 1000L;
+        this.compactIntervalTicks = Math.max(1, config.getLong("storage.journal.compact-interval-seconds", 300)) * 20L;
+        
+        int ioThreads = Math.max(1, config.getInt("storage.io-threads", 2));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.ioExecutor = Executors.newFixedThreadPool(ioThreads, runnable -> {
+            Thread thread = new Thread(runnable, "Progression-IO-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        String configuredType = config.getString("storage.type", "file").toLowerCase();
+        if (configuredType.equals("file")) {
+            configuredType = ProfileFormat.fromName(config.getString("storage.format", "yaml")).name().toLowerCase();
+        }
+        
+        // Falling back to another store would start every player at zero and split their data across backends
+        try {
+            this.store = openStore(configuredType);
+        } catch (IOException e) {
+            ioExecutor.shutdownNow();
+            throw new IllegalStateException("Could not open " + configuredType + " player data storage: " + e.getMessage(), e);
         }
+        this.storeType = configuredType;
+        
+        if (store instanceof FilePlayerDataStore) {
+            // Convert files left in any other format to the configured one
+            ProfileMigrator migrator = new ProfileMigrator(dataFolder, plugin.getLogger());
+            ProfileFormat format = ((FilePlayerDataStore) store).getFormat();
+            for (ProfileFormat other : ProfileFormat.values()) {
+                migrator.migrate(other, format);
+            }
+        }
+        
+        // Replay on the I/O pool like every other store call, but wait for it: loads must see the recovered data
+        long flushIntervalMillis = Math.max(10, config.getLong("storage.journal.flush-interval-ms", 200));
+        this.journal = config.getBoolean("storage.journal.enabled", true)
+                ? CompletableFuture.supplyAsync(() -> openJournal(flushIntervalMillis), ioExecutor).join()
+                : null;
     }
     
     /**
-     * Load data for a player
+     * Replay changes left in the journal by a crash into the store, then start a fresh journal
      * 
-     * @param playerId The player's UUID
+     * @param flushIntervalMillis How often the journal is synced to disk
+     * @return The opened journal, or null if it could not be replayed
      */
-    public void loadPlayerData(UUID playerId) {
-        File playerFile = new File(dataFolder, playerId.toString() + ".yml");
-        
-        Map<String, Map<String, Integer>> playerProgress = new HashMap<>();
+    private ProgressJournal openJournal(long flushIntervalMillis) {
+        ProgressJournal opened = new ProgressJournal(new File(plugin.getDataFolder(), "journal"), plugin.getLogger());
+        Map<UUID, Map<String, Map<String, Integer>>> changes = new HashMap<>();
+        Set<UUID> cleared = new HashSet<>();
         
-        if (playerFile.exists()) {
-            FileConfiguration config = YamlConfiguration.loadConfiguration(playerFile);
+        try {
+            int records = opened.replay(new ProgressJournal.ReplayHandler() {
+                @Override
+                public void set(UUID playerId, String conditionType, String key, int value) {
+                    changes.computeIfAbsent(playerId, k -> new HashMap<>())
+                            .computeIfAbsent(conditionType, k -> new HashMap<>())
+                            .put(key, value);
+                }
+                
+                @Override
+                public void remove(UUID playerId, String conditionType, String key) {
+                    // A null value marks the key for removal from the snapshot
+                    changes.computeIfAbsent(playerId, k -> new HashMap<>())
+                            .computeIfAbsent(conditionType, k -> new HashMap<>())
+                            .put(key, null);
+                }
+                
+                @Override
+                public void clear(UUID playerId) {
+                    changes.put(playerId, new HashMap<>());
+                    cleared.add(playerId);
+                }
+            });
             
-            for (String conditionType : config.getKeys(false)) {
-                Map<String, Integer> typeProgress = new HashMap<>();
+            // Apply the changes on top of each player's last snapshot
+            Map<UUID, Map<String, Map<String, Integer>>> snapshots = new HashMap<>();
+            for (Map.Entry<UUID, Map<String, Map<String, Integer>>> entry : changes.entrySet()) {
+                UUID playerId = entry.getKey();
+                Map<String, Map<String, Integer>> progress;
                 
-                if (config.isConfigurationSection(conditionType)) {
-                    for (String key : config.getConfigurationSection(conditionType).getKeys(false)) {
-                        int value = config.getInt(conditionType + "." + key);
-                        typeProgress.put(key, value);
-                    }
+                if (cleared.contains(playerId)) {
+                    store.delete(playerId);
+                    progress = new HashMap<>();
+                } else {
+                    progress = store.load(playerId);
                 }
                 
-                playerProgress.put(conditionType, typeProgress);
+                for (Map.Entry<String, Map<String, Integer>> typeEntry : entry.getValue().entrySet()) {
+                    Map<String, Integer> typeProgress = progress.computeIfAbsent(typeEntry.getKey(), k -> new HashMap<>());
+                    for (Map.Entry<String, Integer> change : typeEntry.getValue().entrySet()) {
+                        if (change.getValue() == null) {
+                            typeProgress.remove(change.getKey());
+                        } else {
+                            typeProgress.put(change.getKey(), change.getValue());
+                        }
+                    }
+                }
+                snapshots.put(playerId, progress);
+            }
+            store.saveAll(snapshots);
+            
+            if (records > 0) {
+                plugin.getLogger().info("Recovered " + records + " journaled progress changes for "
+                        + changes.size() + " players");
+            }
+            
+            opened.open(flushIntervalMillis);
+            opened.deleteSealed();
+            return opened;
+        } catch (IOException | RuntimeException e) {
+            // Leave the segments on disk so the next start can try again
+            plugin.getLogger().severe("Failed to replay the progress journal, journaling is disabled until restart: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Open a player data store by name
+     * 
+     * @param type The store name: yaml, binary, sqlite or region
+     * @return The opened store
+     * @throws IOException if the name is unknown or the store cannot be opened
+     */
+    public PlayerDataStore openStore(String type) throws IOException {
+        switch (type.toLowerCase()) {
+            case "yaml":
+                return new FilePlayerDataStore(dataFolder, ProfileFormat.YAML);
+            case "binary":
+                return new FilePlayerDataStore(dataFolder, ProfileFormat.BINARY);
+            case "sqlite":
+                return new SqlitePlayerDataStore(new File(plugin.getDataFolder(), "playerdata.db"));
+            case "region":
+                return new RegionPlayerDataStore(new File(plugin.getDataFolder(), "regions"),
+                        plugin.getConfig().getInt("storage.region.segments", 16));
+            default:
+                throw new IOException("Unknown storage type: " + type);
+        }
+    }
+    
+    /**
+     * Get the name of the active store
+     * 
+     * @return The store name
+     */
+    public String getStoreType() {
+        return storeType;
+    }
+    
+    /**
+     * Read a player's saved data into a new profile
+     * 
+     * @param playerId The player's UUID
+     * @return The loaded profile, empty if the player has no saved data
+     */
+    private PlayerProfile readPlayerData(UUID playerId) {
+        PlayerProfile profile = new PlayerProfile(false, counterRegistry);
+        
+        // A queued write is newer than the file on disk, so serve it instead
+        Map<String, Map<String, Integer>> progress = pendingWrites.get(playerId);
+        
+        if (progress == null) {
+            try {
+                progress = store.load(playerId);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read player data for " + playerId, e);
             }
         }
         
-        playerData.put(playerId, playerProgress);
+        for (Map.Entry<String, Map<String, Integer>> typeEntry : progress.entrySet()) {
+            for (Map.Entry<String, Integer> entry : typeEntry.getValue().entrySet()) {
+                // Older saves kept locked items as a zero stamp; leave them out so the next save drops them
+                if (entry.getValue() == 0 && typeEntry.getKey().equals(UNLOCKS_TYPE)) {
+                    continue;
+                }
+                profile.setProgress(typeEntry.getKey(), entry.getKey(), entry.getValue());
+            }
+        }
+        
+        profile.clearDirty();
+        return profile;
     }
     
     /**
-     * Save data for a player
+     * Start reading a player's data on the I/O pool, reusing a read that is already in flight
      * 
      * @param playerId The player's UUID
+     * @return A future completed with the loaded profile
      */
-    public void savePlayerData(UUID playerId) {
-        Map<String, Map<String, Integer>> playerProgress = playerData.get(playerId);
+    private CompletableFuture<PlayerProfile> requestLoad(UUID playerId) {
+        // A player reconnecting within the grace period still has their profile cached
+        PlayerProfile cached = playerData.get(playerId);
+        if (cached != null && !cached.isReadOnly()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        return pendingLoads.computeIfAbsent(playerId, id ->
+            CompletableFuture.supplyAsync(() -> readPlayerData(id), ioExecutor));
+    }
+    
+    /**
+     * Preload a player's data while they are logging in.
+     * This blocks the calling thread, so it must only be used from AsyncPlayerPreLoginEvent.
+     * 
+     * @param playerId The player's UUID
+     * @return true if the data finished loading within the configured timeout
+     */
+    public boolean preloadPlayerData(UUID playerId) {
+        try {
+            requestLoad(playerId).get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            plugin.getLogger().warning("Timed out loading player data for " + playerId);
+            return false;
+        } catch (ExecutionException e) {
+            plugin.getLogger().severe("Failed to load player data for " + playerId);
+            e.getCause().printStackTrace();
+            pendingLoads.remove(playerId);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    /**
+     * Install a player's loaded data when they join. Must be called on the main thread.
+     * If the data is not ready yet, an empty read-only profile is served until it arrives.
+     * 
+     * @param playerId The player's UUID
+     * @param onReady Task to run on the main thread once the real profile is in place
+     */
+    public void activatePlayerData(UUID playerId, Runnable onReady) {
+        offlineSince.remove(playerId);
         
-        if (playerProgress == null) {
+        PlayerProfile cached = playerData.get(playerId);
+        if (cached != null && !cached.isReadOnly()) {
+            cacheHits.incrementAndGet();
+            pendingLoads.remove(playerId);
+            onReady.run();
             return;
         }
+        cacheMisses.incrementAndGet();
         
-        File playerFile = new File(dataFolder, playerId.toString() + ".yml");
-        FileConfiguration config = new YamlConfiguration();
+        CompletableFuture<PlayerProfile> load = requestLoad(playerId);
         
-        for (String conditionType : playerProgress.keySet()) {
-            Map<String, Integer> typeProgress = playerProgress.get(conditionType);
-            
-            for (String key : typeProgress.keySet()) {
-                config.set(conditionType + "." + key, typeProgress.get(key));
+        if (load.isDone() && !load.isCompletedExceptionally()) {
+            pendingLoads.remove(playerId);
+            playerData.put(playerId, load.join());
+            onReady.run();
+            return;
+        }
+        
+        playerData.put(playerId, new PlayerProfile(true, counterRegistry));
+        
+        load.whenComplete((profile, error) -> {
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> installLoadedData(playerId, load, profile, error, onReady));
             }
+        });
+    }
+    
+    /**
+     * Swap a read-only placeholder for the data that finished loading after the player joined
+     * 
+     * @param playerId The player's UUID
+     * @param load The load that completed
+     * @param profile The loaded profile, or null if loading failed
+     * @param error The load failure, or null on success
+     * @param onReady Task to run once the profile is in place
+     */
+    private void installLoadedData(UUID playerId, CompletableFuture<PlayerProfile> load,
+            PlayerProfile profile, Throwable error, Runnable onReady) {
+        pendingLoads.remove(playerId, load);
+        
+        if (error != null) {
+            plugin.getLogger().severe("Failed to load player data for " + playerId
+                    + ", progress will not be saved this session");
+            return;
+        }
+        
+        Player player = Bukkit.getPlayer(playerId);
+        PlayerProfile current = playerData.get(playerId);
+        if (player == null || current == null || !current.isReadOnly()) {
+            return;
+        }
+        
+        playerData.put(playerId, profile);
+        onReady.run();
+    }
+    
+    /**
+     * Load the data of players who are already online, for when the plugin is enabled mid-session.
+     * All reads run in parallel on the I/O pool; this waits up to the load timeout for them and then
+     * activates every player. Anyone whose data is still loading gets a read-only profile until it arrives.
+     * 
+     * @param players The online players
+     * @param onReady Task to run on the main thread for each player once their profile is in place
+     * @return The number of players whose data was loaded within the timeout
+     */
+    public int loadOnlinePlayers(Collection<? extends Player> players, Consumer<Player> onReady) {
+        List<CompletableFuture<PlayerProfile>> loads = new ArrayList<>();
+        for (Player player : players) {
+            loads.add(requestLoad(player.getUniqueId()));
         }
         
         try {
-            config.save(playerFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save player data for " + playerId);
-            e.printStackTrace();
+            CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])).get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Slow or failed loads are handled per player on activation
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        int loaded = 0;
+        for (CompletableFuture<PlayerProfile> load : loads) {
+            if (load.isDone() && !load.isCompletedExceptionally()) {
+                loaded++;
+            }
+        }
+        
+        for (Player player : players) {
+            activatePlayerData(player.getUniqueId(), () -> onReady.accept(player));
         }
+        
+        return loaded;
     }
     
     /**
-     * Save data for all online players
+     * Save a quitting player's data and start their grace period. The profile stays cached so a quick
+     * reconnect skips storage, and is evicted once the grace period passes.
+     * 
+     * @param playerId The player's UUID
+     */
+    public void releasePlayerData(UUID playerId) {
+        savePlayerData(playerId);
+        
+        if (evictionGraceMillis == 0) {
+            evict(playerId);
+        } else {
+            offlineSince.put(playerId, System.currentTimeMillis());
+        }
+    }
+    
+    /**
+     * Evict the profiles of players whose grace period has passed
+     */
+    private void evictExpired() {
+        long cutoff = System.currentTimeMillis() - evictionGraceMillis;
+        
+        for (Map.Entry<UUID, Long> entry : offlineSince.entrySet()) {
+            if (entry.getValue() <= cutoff && Bukkit.getPlayer(entry.getKey()) == null) {
+                evict(entry.getKey());
+            }
+        }
+    }
+    
+    /**
+     * Queue a final save of a player's profile and drop it from the cache.
+     * A rejoin before the write completes is served from the write queue.
+     * 
+     * @param playerId The player's UUID
+     */
+    private void evict(UUID playerId) {
+        offlineSince.remove(playerId);
+        savePlayerData(playerId);
+        
+        if (playerData.remove(playerId) != null) {
+            evictions.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Get the number of cached profiles, including players in their grace period
+     * 
+     * @return The cache size
+     */
+    public int getCacheSize() {
+        return playerData.size();
+    }
+    
+    /**
+     * Get the number of cached profiles of players who have quit
+     * 
+     * @return The number of profiles waiting for eviction
+     */
+    public int getOfflineCacheSize() {
+        return offlineSince.size();
+    }
+    
+    /**
+     * Get the number of joins served from the cache
+     * 
+     * @return The cache hit count
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+    
+    /**
+     * Get the number of joins that had to load from storage
+     * 
+     * @return The cache miss count
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+    
+    /**
+     * Get the number of profiles evicted from the cache
+     * 
+     * @return The eviction count
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+    
+    /**
+     * Forget a preloaded profile for a player whose login was refused after preloading
+     * 
+     * @param playerId The player's UUID
+     */
+    public void discardPendingLoad(UUID playerId) {
+        pendingLoads.remove(playerId);
+    }
+    
+    /**
+     * Check if a player's real data has been loaded
+     * 
+     * @param playerId The player's UUID
+     * @return true if the profile is loaded and writable
+     */
+    public boolean isProfileReady(UUID playerId) {
+        PlayerProfile profile = playerData.get(playerId);
+        return profile != null && !profile.isReadOnly();
+    }
+    
+    /**
+     * Check if logins should be refused when data takes too long to load
+     * 
+     * @return true to deny the login, false to serve a read-only profile
+     */
+    public boolean isDenyOnLoadTimeout() {
+        return denyOnLoadTimeout;
+    }
+    
+    /**
+     * Get the kick message used when data takes too long to load
+     * 
+     * @return The kick message
+     */
+    public String getLoadTimeoutMessage() {
+        return loadTimeoutMessage;
+    }
+    
+    /**
+     * Start the periodic autosave of dirty profiles and eviction of quit players
+     */
+    public void startAutosave() {
+        if (autosaveIntervalTicks > 0) {
+            autosaveTask = Bukkit.getScheduler().runTaskTimer(plugin, this::saveAllPlayerData,
+                    autosaveIntervalTicks, autosaveIntervalTicks);
+        }
+        
+        if (journal != null) {
+            compactTask = Bukkit.getScheduler().runTaskTimer(plugin, this::compactJournal,
+                    compactIntervalTicks, compactIntervalTicks);
+        }
+        
+        evictionTask = Bukkit.getScheduler().runTaskTimer(plugin, this::evictExpired,
+                EVICTION_CHECK_TICKS, EVICTION_CHECK_TICKS);
+    }
+    
+    /**
+     * Fold the journal into snapshots. Segments sealed by the previous run are deleted once every write
+     * queued since has completed; the current segment is then sealed and all dirty profiles queued, so
+     * the next run can delete it in turn.
+     */
+    private void compactJournal() {
+        if (pendingWrites.isEmpty()) {
+            journal.deleteSealed();
+        }
+        
+        journal.rotate();
+        saveAllPlayerData();
+    }
+    
+    /**
+     * Queue a player's data for saving if it changed since the last save.
+     * The write happens on the I/O pool; this only copies the profile.
+     * 
+     * @param playerId The player's UUID
+     */
+    public void savePlayerData(UUID playerId) {
+        PlayerProfile profile = playerData.get(playerId);
+        
+        if (profile == null || profile.isReadOnly() || !profile.isDirty()) {
+            return;
+        }
+        
+        profile.clearDirty();
+        enqueueWrite(playerId, profile.copyProgressMap());
+    }
+    
+    /**
+     * Queue every dirty cached profile for saving
      */
     public void saveAllPlayerData() {
         for (UUID playerId : playerData.keySet()) {
             savePlayerData(playerId);
         }
+        
+        // Retry anything a failed write left behind
+        if (!pendingWrites.isEmpty()) {
+            scheduleDrain();
+        }
     }
     
     /**
-     * Get the current progress value for a player
+     * Queue a snapshot for writing, replacing any snapshot of the same player that hasn't been written yet
      * 
      * @param playerId The player's UUID
-     * @param conditionType The type of condition
-     * @param key The specific key for the condition
+     * @param snapshot The progress to write, or DELETED to remove the player's data
+     */
+    private void enqueueWrite(UUID playerId, Map<String, Map<String, Integer>> snapshot) {
+        pendingWrites.put(playerId, snapshot);
+        scheduleDrain();
+    }
+    
+    /**
+     * Start the writer if it isn't already running
+     */
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            ioExecutor.execute(this::drainPendingWrites);
+        }
+    }
+    
+    /**
+     * Write everything in the queue. Only one drain runs at a time, so each player's writes land in order,
+     * and each pass hands the whole batch to the store so it can write it as one unit.
+     */
+    private void drainPendingWrites() {
+        boolean failed = false;
+        
+        try {
+            while (!pendingWrites.isEmpty()) {
+                Map<UUID, Map<String, Map<String, Integer>>> batch = new HashMap<>(pendingWrites);
+                Map<UUID, Map<String, Map<String, Integer>>> saves = new HashMap<>();
+                
+                for (Map.Entry<UUID, Map<String, Map<String, Integer>>> entry : batch.entrySet()) {
+                    if (entry.getValue() == DELETED) {
+                        store.delete(entry.getKey());
+                    } else {
+                        saves.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                
+                store.saveAll(saves);
+                
+                // Keep anything that was replaced by a newer snapshot while we were writing
+                for (Map.Entry<UUID, Map<String, Map<String, Integer>>> entry : batch.entrySet()) {
+                    pendingWrites.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Leave the batch queued; it is retried on the next save or autosave
+            plugin.getLogger().severe("Failed to save player data, " + pendingWrites.size()
+                    + " profiles will be retried: " + e.getMessage());
+            failed = true;
+        } finally {
+            draining.set(false);
+        }
+        
+        // A snapshot may have been queued after the last check but before the flag was cleared
+        if (!failed && !pendingWrites.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+    
+    /**
+     * Get the number of snapshots waiting to be written
+     * 
+     * @return The write queue size
+     */
+    public int getPendingWriteCount() {
+        return pendingWrites.size();
+    }
+    
+    /**
+     * Flush every dirty profile, stop the I/O pool and close the store. Called when the plugin is disabled.
+     * Waits up to storage.shutdown-timeout-seconds for queued writes.
+     */
+    public void shutdown() {
+        if (autosaveTask != null) {
+            autosaveTask.cancel();
+            autosaveTask = null;
+        }
+        if (compactTask != null) {
+            compactTask.cancel();
+            compactTask = null;
+        }
+        if (evictionTask != null) {
+            evictionTask.cancel();
+            evictionTask = null;
+        }
+        
+        saveAllPlayerData();
+        pendingLoads.clear();
+        ioExecutor.shutdown();
+        
+        try {
+            if (!ioExecutor.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+                plugin.getLogger().severe("Timed out saving player data, " + pendingWrites.size() + " profiles were not written");
+                ioExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            ioExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        
+        // The journal is only needed if some snapshot didn't make it to the store
+        if (journal != null) {
+            journal.close(pendingWrites.isEmpty());
+        }
+        
+        try {
+            store.close();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to close player data storage: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Copy every player from another store into the active one, on the I/O pool.
+     * Online players' cached data is not refreshed, so this should be run with nobody online.
+     * 
+     * @param sourceType The store to import from: yaml, binary, sqlite or region
+     * @return A future completed with the number of players imported
+     */
+    public CompletableFuture<Integer> importFrom(String sourceType) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (sourceType.equalsIgnoreCase(storeType)) {
+                throw new IllegalArgumentException("Cannot import " + sourceType + " into itself");
+            }
+            
+            try {
+                PlayerDataStore source = openStore(sourceType);
+                try {
+                    return new ProfileMigrator(dataFolder, plugin.getLogger()).copy(source, store);
+                } finally {
+                    source.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, ioExecutor);
+    }
+    
+    /**
+     * Defragment the active store on the I/O pool. Only region storage supports this.
+     * 
+     * @return A future completed with the number of bytes reclaimed
+     */
+    public CompletableFuture<Long> compactStore() {
+        return CompletableFuture.supplyAsync(() -> {
+            if (!(store instanceof RegionPlayerDataStore)) {
+                throw new IllegalStateException("Only region storage can be compacted");
+            }
+            
+            try {
+                return ((RegionPlayerDataStore) store).compact();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, ioExecutor);
+    }
+    
+    /**
+     * Get the registry assigning slots to tracked counters
+     * 
+     * @return The counter registry
+     */
+    public CounterRegistry getCounterRegistry() {
+        return counterRegistry;
+    }
+    
+    /**
+     * Get the current value of a registered counter for a player
+     * 
+     * @param playerId The player's UUID
+     * @param slot The counter's slot in the counter registry
      * @return The progress value
      */
-    public int getProgress(UUID playerId, String conditionType, String key) {
-        Map<String, Map<String, Integer>> playerProgress = playerData.get(playerId);
+    public int getProgress(UUID playerId, int slot) {
+        PlayerProfile profile = playerData.get(playerId);
+        
+        if (profile == null) {
+            return 0;
+        }
         
-        if (playerProgress == null) {
+        return profile.getCounter(slot);
+    }
+    
+    /**
+     * Add to a registered counter for a player
+     * 
+     * @param playerId The player's UUID
+     * @param slot The counter's slot in the counter registry
+     * @param amount The amount to add
+     * @return The new progress value
+     */
+    public int addProgress(UUID playerId, int slot, int amount) {
+        PlayerProfile profile = playerData.get(playerId);
+        
+        if (profile == null || profile.isReadOnly()) {
             return 0;
         }
         
-        Map<String, Integer> typeProgress = playerProgress.get(conditionType);
+        int value = profile.addCounter(slot, amount);
+        
+        if (journal != null) {
+            journal.recordSet(playerId, counterRegistry.getType(slot), counterRegistry.getKey(slot), value);
+        }
+        return value;
+    }
+    
+    /**
+     * Get the current progress value for a player
+     * 
+     * @param playerId The player's UUID
+     * @param conditionType The type of condition
+     * @param key The specific key for the condition
+     * @return The progress value
+     */
+    public int getProgress(UUID playerId, String conditionType, String key) {
+        PlayerProfile profile = playerData.get(playerId);
         
-        if (typeProgress == null) {
+        if (profile == null) {
             return 0;
         }
         
-        Integer value = typeProgress.get(key);
-        return value == null ? 0 : value;
+        return profile.getProgress(conditionType, key);
     }
     
     /**
-     * Set the progress value for a player
+     * Set the progress value for a player.
+     * Ignored until the player's data has loaded, so a partial profile never overwrites saved progress.
      * 
      * @param playerId The player's UUID
      * @param conditionType The type of condition
@@ -141,38 +864,120 @@ public class PlayerDataManager {
      * @param value The progress value
      */
     public void setProgress(UUID playerId, String conditionType, String key, int value) {
-        Map<String, Map<String, Integer>> playerProgress = playerData.get(playerId);
+        PlayerProfile profile = playerData.get(playerId);
         
-        if (playerProgress == null) {
-            playerProgress = new HashMap<>();
-            playerData.put(playerId, playerProgress);
+        if (profile == null || profile.isReadOnly()) {
+            return;
         }
         
-        Map<String, Integer> typeProgress = playerProgress.get(conditionType);
+        profile.setProgress(conditionType, key, value);
         
-        if (typeProgress == null) {
-            typeProgress = new HashMap<>();
-            playerProgress.put(conditionType, typeProgress);
+        if (journal != null) {
+            journal.recordSet(playerId, conditionType, key, value);
         }
-        
-        typeProgress.put(key, value);
+        invalidateUnlocks(playerId, profile);
     }
     
     /**
-     * Add to the progress value for a player
+     * Add to a progress value that has no slot in the counter registry.
+     * No condition reads such a counter, so nothing can unlock; counters with a slot must be recorded
+     * through the ProgressService, which walks their thresholds and keeps the unlock ledger current.
      * 
      * @param playerId The player's UUID
      * @param conditionType The type of condition
      * @param key The specific key for the condition
      * @param amount The amount to add
      * @return The new progress value
+     * @throws IllegalArgumentException if the counter has a slot
+     */
+    public int addUnslottedProgress(UUID playerId, String conditionType, String key, int amount) {
+        if (counterRegistry.getSlot(conditionType, key) >= 0) {
+            throw new IllegalArgumentException(conditionType + ":" + key + " has a counter slot");
+        }
+        
+        PlayerProfile profile = playerData.get(playerId);
+        
+        if (profile == null || profile.isReadOnly()) {
+            return 0;
+        }
+        
+        int value = profile.addProgress(conditionType, key, amount);
+        
+        if (journal != null) {
+            journal.recordSet(playerId, conditionType, key, value);
+        }
+        return value;
+    }
+    
+    /**
+     * Get a player's unlock ledger
+     * 
+     * @param playerId The player's UUID
+     * @return The ledger, or null if the player's data isn't loaded
+     */
+    public UnlockLedger getUnlockLedger(UUID playerId) {
+        PlayerProfile profile = playerData.get(playerId);
+        
+        if (profile == null || profile.isReadOnly()) {
+            return null;
+        }
+        
+        return profile.getUnlockLedger();
+    }
+    
+    /**
+     * Get the persisted unlock stamp of an item
+     * 
+     * @param playerId The player's UUID
+     * @param itemId The item ID
+     * @return The stamp of the condition the item was unlocked under, or 0 if it isn't unlocked
+     */
+    public int getUnlockStamp(UUID playerId, String itemId) {
+        return getProgress(playerId, UNLOCKS_TYPE, itemId);
+    }
+    
+    /**
+     * Persist an item's unlock state. Unlike setProgress, this leaves the unlock ledger alone.
+     * Locked items have no entry, so a stamp of 0 removes the item's entry instead of storing it.
+     * 
+     * @param playerId The player's UUID
+     * @param itemId The item ID
+     * @param stamp The stamp of the item's condition, or 0 if the item is locked
+     */
+    public void setUnlockStamp(UUID playerId, String itemId, int stamp) {
+        PlayerProfile profile = playerData.get(playerId);
+        
+        if (profile == null || profile.isReadOnly()) {
+            return;
+        }
+        
+        if (stamp == 0) {
+            if (profile.removeProgress(UNLOCKS_TYPE, itemId) && journal != null) {
+                journal.recordRemove(playerId, UNLOCKS_TYPE, itemId);
+            }
+            return;
+        }
+        
+        profile.setProgress(UNLOCKS_TYPE, itemId, stamp);
+        
+        if (journal != null) {
+            journal.recordSet(playerId, UNLOCKS_TYPE, itemId, stamp);
+        }
+    }
+    
+    /**
+     * Forget a player's cached unlocks and remove the persisted ones after their progress was set directly,
+     * e.g. by an admin, so every item is evaluated again on its next check
+     * 
+     * @param playerId The player's UUID
+     * @param profile The player's profile
      */
-    public int addProgress(UUID playerId, String conditionType, String key, int amount) {
-        int currentValue = getProgress(playerId, conditionType, key);
-        int newValue = currentValue + amount;
+    private void invalidateUnlocks(UUID playerId, PlayerProfile profile) {
+        profile.getUnlockLedger().clear();
         
-        setProgress(playerId, conditionType, key, newValue);
-        return newValue;
+        for (String itemId : profile.getStampedUnlocks()) {
+            setUnlockStamp(playerId, itemId, 0);
+        }
     }
     
     /**
@@ -183,11 +988,24 @@ public class PlayerDataManager {
     public void clearPlayerData(UUID playerId) {
         // Remove from memory
         playerData.remove(playerId);
+        offlineSince.remove(playerId);
         
-        // Delete the file
-        File playerFile = new File(dataFolder, playerId.toString() + ".yml");
-        if (playerFile.exists()) {
-            playerFile.delete();
+        if (journal != null) {
+            journal.recordClear(playerId);
         }
+        
+        // Delete the saved data behind any writes that are still queued
+        enqueueWrite(playerId, DELETED);
+    }
+    
+    /**
+     * Clear all data for a player and start them over with an empty profile.
+     * The cleared data is known to be empty, so nothing is read from the store.
+     * 
+     * @param playerId The player's UUID
+     */
+    public void resetPlayerData(UUID playerId) {
+        clearPlayerData(playerId);
+        playerData.put(playerId, new PlayerProfile(false, counterRegistry));
     }
-} 
\ No newline at end of file
+}
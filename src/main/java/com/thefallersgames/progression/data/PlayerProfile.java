@@ -0,0 +1,311 @@
+package com.thefallersgames.progression.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory progression data for a single player.
+ * Counters registered in the CounterRegistry live in an array indexed by slot; anything else
+ * falls back to a sparse map. A read-only profile is a stand-in served while the real data is
+ * still loading; it always reports zero progress and is never written to disk.
+ * 
+ * Reads are lock-free and safe from any thread, so placeholder and scoreboard plugins can query
+ * progress asynchronously while the main thread records it. Writes are serialized on the profile;
+ * every write is published atomically, so readers see either the old or the new value of a counter.
+ */
+public class PlayerProfile {
+    
+    // Array entries carry this bit once a value is set, so explicit zeros are saved like any other value
+    private static final long PRESENT = 1L << 32;
+    private static final long EMPTY = 0L;
+    
+    private final CounterRegistry registry;
+    private final Map<String, Map<String, Integer>> sparse;
+    private final boolean readOnly;
+    // Replaced as a whole when it grows, so readers always see a complete array
+    private volatile AtomicLongArray counters;
+    private final UnlockLedger unlockLedger;
+    private volatile boolean dirty;
+    
+    /**
+     * Create a new, empty PlayerProfile
+     * 
+     * @param readOnly Whether this profile is a read-only placeholder
+     * @param registry The registry assigning counter slots
+     */
+    public PlayerProfile(boolean readOnly, CounterRegistry registry) {
+        this.registry = registry;
+        this.sparse = new ConcurrentHashMap<>();
+        this.readOnly = readOnly;
+        this.counters = new AtomicLongArray(registry.size());
+        this.unlockLedger = new UnlockLedger();
+    }
+    
+    /**
+     * Get a registered counter
+     * 
+     * @param slot The counter's slot
+     * @return The progress value, or 0 if none was recorded
+     */
+    public int getCounter(int slot) {
+        long entry = getEntry(slot);
+        if (entry != EMPTY) {
+            return (int) entry;
+        }
+        
+        // Values loaded before a condition tracked the counter stay sparse until it is next written
+        Integer value = getSparse(registry.getType(slot), registry.getKey(slot));
+        if (value != null) {
+            return value;
+        }
+        
+        // A writer may have just moved the value out of the sparse map
+        return (int) getEntry(slot);
+    }
+    
+    /**
+     * Set a registered counter
+     * 
+     * @param slot The counter's slot
+     * @param value The progress value
+     */
+    public synchronized void setCounter(int slot, int value) {
+        AtomicLongArray current = counters;
+        if (slot >= current.length()) {
+            current = grow(current, Math.max(slot + 1, registry.size()));
+        }
+        
+        current.set(slot, PRESENT | (value & 0xFFFFFFFFL));
+        
+        // Drop any sparse copy only after the array holds the value, so readers never miss it
+        Map<String, Integer> typeProgress = sparse.get(registry.getType(slot));
+        if (typeProgress != null) {
+            typeProgress.remove(registry.getKey(slot));
+        }
+        dirty = true;
+    }
+    
+    /**
+     * Add to a registered counter
+     * 
+     * @param slot The counter's slot
+     * @param amount The amount to add
+     * @return The new progress value
+     */
+    public synchronized int addCounter(int slot, int amount) {
+        int value = getCounter(slot) + amount;
+        setCounter(slot, value);
+        return value;
+    }
+    
+    /**
+     * Get a progress value
+     * 
+     * @param conditionType The type of condition
+     * @param key The specific key for the condition
+     * @return The progress value, or 0 if none was recorded
+     */
+    public int getProgress(String conditionType, String key) {
+        int slot = registry.getSlot(conditionType, key);
+        if (slot >= 0) {
+            return getCounter(slot);
+        }
+        
+        Integer value = getSparse(conditionType, key);
+        if (value != null) {
+            return value;
+        }
+        
+        // The counter may have been registered, and its value moved into the array, since the slot was looked up
+        slot = registry.getSlot(conditionType, key);
+        return slot >= 0 ? getCounter(slot) : 0;
+    }
+    
+    /**
+     * Set a progress value
+     * 
+     * @param conditionType The type of condition
+     * @param key The specific key for the condition
+     * @param value The progress value
+     */
+    public synchronized void setProgress(String conditionType, String key, int value) {
+        int slot = registry.getSlot(conditionType, key);
+        if (slot >= 0) {
+            setCounter(slot, value);
+            return;
+        }
+        
+        sparse.computeIfAbsent(conditionType, k -> new ConcurrentHashMap<>()).put(key, value);
+        dirty = true;
+    }
+    
+    /**
+     * Remove a progress value, so it is no longer saved
+     * 
+     * @param conditionType The type of condition
+     * @param key The specific key for the condition
+     * @return true if a value was removed
+     */
+    public synchronized boolean removeProgress(String conditionType, String key) {
+        boolean removed = false;
+        
+        int slot = registry.getSlot(conditionType, key);
+        AtomicLongArray current = counters;
+        if (slot >= 0 && slot < current.length() && current.getAndSet(slot, EMPTY) != EMPTY) {
+            removed = true;
+        }
+        
+        Map<String, Integer> typeProgress = sparse.get(conditionType);
+        if (typeProgress != null && typeProgress.remove(key) != null) {
+            removed = true;
+        }
+        
+        if (removed) {
+            dirty = true;
+        }
+        return removed;
+    }
+    
+    /**
+     * Add to a progress value
+     * 
+     * @param conditionType The type of condition
+     * @param key The specific key for the condition
+     * @param amount The amount to add
+     * @return The new progress value
+     */
+    public synchronized int addProgress(String conditionType, String key, int amount) {
+        int value = getProgress(conditionType, key) + amount;
+        setProgress(conditionType, key, value);
+        return value;
+    }
+    
+    /**
+     * Copy the progress values so they can be written without touching the live profile
+     * 
+     * @return A deep copy of the progress values, keyed by condition type and then by key
+     */
+    public synchronized Map<String, Map<String, Integer>> copyProgressMap() {
+        Map<String, Map<String, Integer>> copy = new HashMap<>();
+        
+        for (Map.Entry<String, Map<String, Integer>> entry : sparse.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                copy.put(entry.getKey(), new HashMap<>(entry.getValue()));
+            }
+        }
+        
+        AtomicLongArray current = counters;
+        for (int slot = 0; slot < current.length(); slot++) {
+            long entry = current.get(slot);
+            if (entry != EMPTY) {
+                copy.computeIfAbsent(registry.getType(slot), k -> new HashMap<>())
+                        .put(registry.getKey(slot), (int) entry);
+            }
+        }
+        
+        return copy;
+    }
+    
+    /**
+     * Get the items with a persisted unlock, see PlayerDataManager.UNLOCKS_TYPE
+     * 
+     * @return The item IDs whose unlock stamp is set
+     */
+    public synchronized List<String> getStampedUnlocks() {
+        List<String> items = new ArrayList<>();
+        Map<String, Integer> stamps = sparse.get(PlayerDataManager.UNLOCKS_TYPE);
+        
+        if (stamps != null) {
+            for (Map.Entry<String, Integer> entry : stamps.entrySet()) {
+                if (entry.getValue() != 0) {
+                    items.add(entry.getKey());
+                }
+            }
+        }
+        return items;
+    }
+    
+    /**
+     * Get the cached unlock state of the player's locked items
+     * 
+     * @return The unlock ledger
+     */
+    public UnlockLedger getUnlockLedger() {
+        return unlockLedger;
+    }
+    
+    /**
+     * Read the raw array entry of a slot
+     * 
+     * @param slot The counter's slot
+     * @return The entry, or EMPTY if the slot holds no value
+     */
+    private long getEntry(int slot) {
+        AtomicLongArray current = counters;
+        return slot < current.length() ? current.get(slot) : EMPTY;
+    }
+    
+    /**
+     * Read a value from the sparse map
+     * 
+     * @param conditionType The type of condition
+     * @param key The specific key for the condition
+     * @return The value, or null if the sparse map doesn't hold it
+     */
+    private Integer getSparse(String conditionType, String key) {
+        Map<String, Integer> typeProgress = sparse.get(conditionType);
+        return typeProgress == null ? null : typeProgress.get(key);
+    }
+    
+    /**
+     * Publish a larger copy of the counter array. Only called by writers, which hold the profile lock.
+     * 
+     * @param current The current array
+     * @param length The new length
+     * @return The new array
+     */
+    private AtomicLongArray grow(AtomicLongArray current, int length) {
+        AtomicLongArray grown = new AtomicLongArray(length);
+        for (int slot = 0; slot < current.length(); slot++) {
+            grown.set(slot, current.get(slot));
+        }
+        counters = grown;
+        return grown;
+    }
+    
+    /**
+     * Check if the profile changed since it was last queued for saving
+     * 
+     * @return true if there are unsaved changes
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+    
+    /**
+     * Flag the profile as having unsaved changes
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+    
+    /**
+     * Clear the unsaved changes flag once a snapshot has been queued
+     */
+    public void clearDirty() {
+        dirty = false;
+    }
+    
+    /**
+     * Check if this profile is a read-only placeholder
+     * 
+     * @return true if the profile must not be modified or saved
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+}
@@ -0,0 +1,149 @@
+package com.thefallersgames.progression.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * On-disk formats for per-player progress files, selected with storage.format.
+ */
+public enum ProfileFormat {
+    
+    /**
+     * Human-readable nested YAML, one section per condition type
+     */
+    YAML(".yml") {
+        @Override
+        public Map<String, Map<String, Integer>> read(File file) throws IOException {
+            FileConfiguration config = YamlConfiguration.loadConfiguration(file);
+            Map<String, Map<String, Integer>> progress = new HashMap<>();
+            
+            for (String conditionType : config.getKeys(false)) {
+                ConfigurationSection section = config.getConfigurationSection(conditionType);
+                if (section == null) {
+                    continue;
+                }
+                
+                Map<String, Integer> typeProgress = new HashMap<>();
+                for (String key : section.getKeys(false)) {
+                    typeProgress.put(key, section.getInt(key));
+                }
+                progress.put(conditionType, typeProgress);
+            }
+            
+            return progress;
+        }
+        
+        @Override
+        public void write(File file, Map<String, Map<String, Integer>> progress) throws IOException {
+            FileConfiguration config = new YamlConfiguration();
+            
+            for (Map.Entry<String, Map<String, Integer>> typeEntry : progress.entrySet()) {
+                for (Map.Entry<String, Integer> entry : typeEntry.getValue().entrySet()) {
+                    config.set(typeEntry.getKey() + "." + entry.getKey(), entry.getValue());
+                }
+            }
+            
+            config.save(file);
+        }
+    },
+    
+    /**
+     * Compact versioned binary encoding, see BinaryProfileCodec
+     */
+    BINARY(".dat") {
+        @Override
+        public Map<String, Map<String, Integer>> read(File file) throws IOException {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+                return BinaryProfileCodec.read(in);
+            }
+        }
+        
+        @Override
+        public void write(File file, Map<String, Map<String, Integer>> progress) throws IOException {
+            // Write beside the target and swap it in, so a crash never leaves a half-written profile
+            Path target = file.toPath();
+            Path temp = target.resolveSibling(file.getName() + ".tmp");
+            
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                BinaryProfileCodec.write(out, progress);
+            }
+            
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    };
+    
+    private final String extension;
+    
+    ProfileFormat(String extension) {
+        this.extension = extension;
+    }
+    
+    /**
+     * Read a progress file
+     * 
+     * @param file The file to read
+     * @return The progress values, keyed by condition type and then by key
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public abstract Map<String, Map<String, Integer>> read(File file) throws IOException;
+    
+    /**
+     * Write a progress file, replacing any existing file
+     * 
+     * @param file The file to write
+     * @param progress The progress values, keyed by condition type and then by key
+     * @throws IOException if the file cannot be written
+     */
+    public abstract void write(File file, Map<String, Map<String, Integer>> progress) throws IOException;
+    
+    /**
+     * Get the file extension used by this format
+     * 
+     * @return The extension, including the leading dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+    
+    /**
+     * Get the file holding a player's data in this format
+     * 
+     * @param dataFolder The player data folder
+     * @param playerId The player's UUID
+     * @return The player's file
+     */
+    public File getFile(File dataFolder, UUID playerId) {
+        return new File(dataFolder, playerId.toString() + extension);
+    }
+    
+    /**
+     * Parse a format name from the configuration
+     * 
+     * @param name The configured name
+     * @return The matching format, or YAML if the name is unknown
+     */
+    public static ProfileFormat fromName(String name) {
+        if (name != null) {
+            for (ProfileFormat format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+        }
+        return YAML;
+    }
+}
@@ -0,0 +1,136 @@
+package com.thefallersgames.progression.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import com.thefallersgames.progression.api.storage.PlayerDataStore;
+
+/**
+ * One-shot converter between player file formats and between stores.
+ * Files are streamed from the directory one at a time, so memory use does not grow with the player count.
+ * Converted source files are moved into a backup folder rather than deleted.
+ */
+public class ProfileMigrator {
+    
+    // Players written per saveAll call when copying between stores
+    private static final int COPY_BATCH_SIZE = 500;
+    
+    private final File dataFolder;
+    private final Logger logger;
+    
+    /**
+     * Create a new ProfileMigrator
+     * 
+     * @param dataFolder The player data folder
+     * @param logger The logger for progress and failures
+     */
+    public ProfileMigrator(File dataFolder, Logger logger) {
+        this.dataFolder = dataFolder;
+        this.logger = logger;
+    }
+    
+    /**
+     * Convert every player file in one format to another
+     * 
+     * @param from The format to convert from
+     * @param to The format to convert to
+     * @return The number of files converted
+     */
+    public int migrate(ProfileFormat from, ProfileFormat to) {
+        if (from == to) {
+            return 0;
+        }
+        
+        Path backupFolder = new File(dataFolder, from.name().toLowerCase() + "-backup").toPath();
+        int migrated = 0;
+        int failed = 0;
+        
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dataFolder.toPath(), "*" + from.getExtension())) {
+            for (Path source : files) {
+                String fileName = source.getFileName().toString();
+                UUID playerId;
+                
+                try {
+                    playerId = UUID.fromString(fileName.substring(0, fileName.length() - from.getExtension().length()));
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                
+                try {
+                    File target = to.getFile(dataFolder, playerId);
+                    
+                    // An existing target was written after the source, so it wins
+                    if (!target.exists()) {
+                        to.write(target, from.read(source.toFile()));
+                    }
+                    
+                    Files.createDirectories(backupFolder);
+                    Files.move(source, backupFolder.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+                    migrated++;
+                } catch (IOException e) {
+                    logger.warning("Failed to migrate player data file " + fileName + ": " + e.getMessage());
+                    failed++;
+                }
+            }
+        } catch (IOException e) {
+            logger.severe("Failed to scan player data folder for migration: " + e.getMessage());
+        }
+        
+        if (migrated > 0 || failed > 0) {
+            logger.info("Migrated " + migrated + " player data files from " + from.name().toLowerCase()
+                    + " to " + to.name().toLowerCase() + (failed > 0 ? " (" + failed + " failed)" : ""));
+        }
+        
+        return migrated;
+    }
+    
+    /**
+     * Copy every player from one store to another. The source is left untouched.
+     * Players are written in batches so stores that support it can use one transaction per batch.
+     * 
+     * @param from The store to read from
+     * @param to The store to write to
+     * @return The number of players copied
+     * @throws IOException if either store fails
+     */
+    public int copy(PlayerDataStore from, PlayerDataStore to) throws IOException {
+        Map<UUID, Map<String, Map<String, Integer>>> batch = new HashMap<>();
+        int[] copied = {0};
+        IOException[] failure = {null};
+        
+        from.forEach((playerId, progress) -> {
+            if (failure[0] != null) {
+                return;
+            }
+            
+            batch.put(playerId, progress);
+            if (batch.size() >= COPY_BATCH_SIZE) {
+                try {
+                    to.saveAll(batch);
+                    copied[0] += batch.size();
+                    batch.clear();
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            }
+        });
+        
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        
+        to.saveAll(batch);
+        copied[0] += batch.size();
+        
+        logger.info("Copied " + copied[0] + " players between player data stores");
+        return copied[0];
+    }
+}
\ No newline at end of file
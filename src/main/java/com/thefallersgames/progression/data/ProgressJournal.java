@@ -0,0 +1,474 @@
+package com.thefallersgames.progression.data;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of progress changes, kept between snapshot saves so a crash loses at most one flush interval.
+ * 
+ * Changes are encoded into an in-memory buffer on the server thread and written by a background flusher,
+ * which appends everything buffered since the last flush with one write and one fsync (group commit).
+ * Each record holds the value a counter was set to rather than the amount added, so replaying a record
+ * that already made it into a snapshot is harmless.
+ * 
+ * Record layout: int payload length, int CRC32 of the payload, then the payload. A torn record at the
+ * end of a segment fails its length or CRC check and ends replay of that segment.
+ */
+public class ProgressJournal {
+    
+    private static final byte OP_SET = 1;
+    private static final byte OP_CLEAR = 2;
+    private static final byte OP_REMOVE = 3;
+    
+    // Larger lengths can only come from a torn or corrupt record
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+    
+    private static final String SEGMENT_PREFIX = "progress-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    
+    private final File journalFolder;
+    private final Logger logger;
+    private final Object channelLock = new Object();
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream recordOut = new DataOutputStream(recordBuffer);
+    private final CRC32 crc = new CRC32();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private byte[] rotationTail;
+    private ScheduledExecutorService flusher;
+    private FileChannel channel;
+    private Path currentSegment;
+    private long nextSegment;
+    
+    /**
+     * A replayed change to one player's progress
+     */
+    public interface ReplayHandler {
+        
+        /**
+         * Called for a counter that was set
+         * 
+         * @param playerId The player's UUID
+         * @param conditionType The condition type
+         * @param key The progress key
+         * @param value The new value
+         */
+        void set(UUID playerId, String conditionType, String key, int value);
+        
+        /**
+         * Called for a counter that was removed
+         * 
+         * @param playerId The player's UUID
+         * @param conditionType The condition type
+         * @param key The progress key
+         */
+        void remove(UUID playerId, String conditionType, String key);
+        
+        /**
+         * Called when all of a player's progress was cleared
+         * 
+         * @param playerId The player's UUID
+         */
+        void clear(UUID playerId);
+    }
+    
+    /**
+     * Create a new ProgressJournal. Call replay and then open before recording changes.
+     * 
+     * @param journalFolder The folder holding the journal segments
+     * @param logger The logger for failures
+     */
+    public ProgressJournal(File journalFolder, Logger logger) {
+        this.journalFolder = journalFolder;
+        this.logger = logger;
+    }
+    
+    /**
+     * Replay every segment on disk, oldest first
+     * 
+     * @param handler Receives each recorded change
+     * @return The number of records replayed
+     * @throws IOException if a segment cannot be read
+     */
+    public int replay(ReplayHandler handler) throws IOException {
+        int replayed = 0;
+        
+        for (Path segment : listSegments()) {
+            try (InputStream in = Files.newInputStream(segment)) {
+                DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+                
+                while (true) {
+                    byte[] payload = readRecord(data);
+                    if (payload == null) {
+                        break;
+                    }
+                    
+                    if (payload.length == 0) {
+                        logger.warning("Ignoring the damaged end of journal segment " + segment.getFileName());
+                        break;
+                    }
+                    
+                    DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                    byte op = record.readByte();
+                    UUID playerId = new UUID(record.readLong(), record.readLong());
+                    
+                    if (op == OP_SET) {
+                        handler.set(playerId, record.readUTF(), record.readUTF(), record.readInt());
+                    } else if (op == OP_REMOVE) {
+                        handler.remove(playerId, record.readUTF(), record.readUTF());
+                    } else if (op == OP_CLEAR) {
+                        handler.clear(playerId);
+                    }
+                    replayed++;
+                }
+            }
+        }
+        
+        return replayed;
+    }
+    
+    /**
+     * Start a fresh segment and the background flusher. Existing segments are kept until deleteSealed.
+     * 
+     * @param flushIntervalMillis How often buffered records are written and synced
+     * @throws IOException if the segment cannot be created
+     */
+    public void open(long flushIntervalMillis) throws IOException {
+        Files.createDirectories(journalFolder.toPath());
+        
+        List<Path> existing = listSegments();
+        sealedSegments.addAll(existing);
+        nextSegment = existing.isEmpty() ? 1 : segmentNumber(existing.get(existing.size() - 1)) + 1;
+        openSegment();
+        
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Progression-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Record that a counter was set
+     * 
+     * @param playerId The player's UUID
+     * @param conditionType The condition type
+     * @param key The progress key
+     * @param value The new value
+     */
+    public synchronized void recordSet(UUID playerId, String conditionType, String key, int value) {
+        try {
+            recordBuffer.reset();
+            recordOut.writeByte(OP_SET);
+            recordOut.writeLong(playerId.getMostSignificantBits());
+            recordOut.writeLong(playerId.getLeastSignificantBits());
+            recordOut.writeUTF(conditionType);
+            recordOut.writeUTF(key);
+            recordOut.writeInt(value);
+            appendRecord();
+        } catch (IOException e) {
+            // Writes to an in-memory buffer only fail on keys too long to encode
+            logger.warning("Could not journal progress " + conditionType + "." + key + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Record that a counter was removed
+     * 
+     * @param playerId The player's UUID
+     * @param conditionType The condition type
+     * @param key The progress key
+     */
+    public synchronized void recordRemove(UUID playerId, String conditionType, String key) {
+        try {
+            recordBuffer.reset();
+            recordOut.writeByte(OP_REMOVE);
+            recordOut.writeLong(playerId.getMostSignificantBits());
+            recordOut.writeLong(playerId.getLeastSignificantBits());
+            recordOut.writeUTF(conditionType);
+            recordOut.writeUTF(key);
+            appendRecord();
+        } catch (IOException e) {
+            logger.warning("Could not journal removal of " + conditionType + "." + key + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Record that all of a player's progress was cleared
+     * 
+     * @param playerId The player's UUID
+     */
+    public synchronized void recordClear(UUID playerId) {
+        try {
+            recordBuffer.reset();
+            recordOut.writeByte(OP_CLEAR);
+            recordOut.writeLong(playerId.getMostSignificantBits());
+            recordOut.writeLong(playerId.getLeastSignificantBits());
+            appendRecord();
+        } catch (IOException e) {
+            logger.warning("Could not journal progress reset of " + playerId + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Write and sync everything buffered so far
+     * 
+     * @throws IOException if the segment cannot be written
+     */
+    public void flush() throws IOException {
+        synchronized (channelLock) {
+            if (channel == null) {
+                return;
+            }
+            
+            byte[] tail = takeRotationTail();
+            if (tail != null) {
+                try {
+                    write(tail);
+                } catch (IOException e) {
+                    restoreRotationTail(tail);
+                    throw e;
+                }
+                channel.close();
+                sealedSegments.add(currentSegment);
+                openSegment();
+            }
+            
+            byte[] bytes = takePending();
+            if (bytes.length == 0) {
+                return;
+            }
+            
+            try {
+                write(bytes);
+            } catch (IOException e) {
+                // Put the records back in front of anything buffered since, so the next flush retries them
+                restorePending(bytes);
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Seal the current segment and continue in a new one. Records made before this call end up in a sealed
+     * segment, which can be deleted once every change it contains has reached a snapshot.
+     * This only cuts the buffer; the segment is switched by the next flush, off the calling thread.
+     */
+    public synchronized void rotate() {
+        byte[] bytes = pending.toByteArray();
+        pending = new ByteArrayOutputStream(Math.max(256, bytes.length));
+        
+        if (rotationTail == null) {
+            rotationTail = bytes;
+        } else {
+            // The previous cut was never flushed; both belong in the segment being sealed
+            byte[] joined = new byte[rotationTail.length + bytes.length];
+            System.arraycopy(rotationTail, 0, joined, 0, rotationTail.length);
+            System.arraycopy(bytes, 0, joined, rotationTail.length, bytes.length);
+            rotationTail = joined;
+        }
+    }
+    
+    /**
+     * Delete every sealed segment
+     */
+    public void deleteSealed() {
+        synchronized (channelLock) {
+            for (Path segment : sealedSegments) {
+                try {
+                    Files.deleteIfExists(segment);
+                } catch (IOException e) {
+                    logger.warning("Could not delete journal segment " + segment.getFileName() + ": " + e.getMessage());
+                }
+            }
+            sealedSegments.clear();
+        }
+    }
+    
+    /**
+     * Get the number of sealed segments waiting for deletion
+     * 
+     * @return The sealed segment count
+     */
+    public int getSealedSegmentCount() {
+        synchronized (channelLock) {
+            return sealedSegments.size();
+        }
+    }
+    
+    /**
+     * Stop the flusher and close the current segment after a final flush
+     * 
+     * @param discard true to delete every segment, when all changes are known to be in snapshots
+     */
+    public void close(boolean discard) {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        
+        synchronized (channelLock) {
+            try {
+                flush();
+                channel.close();
+            } catch (IOException e) {
+                logger.severe("Failed to flush the progress journal: " + e.getMessage());
+                discard = false;
+            }
+            
+            if (discard) {
+                sealedSegments.add(currentSegment);
+                deleteSealed();
+            }
+            channel = null;
+        }
+    }
+    
+    private void appendRecord() throws IOException {
+        byte[] payload = recordBuffer.toByteArray();
+        crc.reset();
+        crc.update(payload, 0, payload.length);
+        
+        DataOutputStream out = new DataOutputStream(pending);
+        out.writeInt(payload.length);
+        out.writeInt((int) crc.getValue());
+        out.write(payload);
+    }
+    
+    private void write(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+    
+    private synchronized byte[] takeRotationTail() {
+        byte[] tail = rotationTail;
+        rotationTail = null;
+        return tail;
+    }
+    
+    private synchronized void restoreRotationTail(byte[] tail) {
+        if (rotationTail == null) {
+            rotationTail = tail;
+        } else {
+            byte[] joined = new byte[tail.length + rotationTail.length];
+            System.arraycopy(tail, 0, joined, 0, tail.length);
+            System.arraycopy(rotationTail, 0, joined, tail.length, rotationTail.length);
+            rotationTail = joined;
+        }
+    }
+    
+    private synchronized byte[] takePending() {
+        if (pending.size() == 0) {
+            return new byte[0];
+        }
+        
+        byte[] bytes = pending.toByteArray();
+        pending = new ByteArrayOutputStream(Math.max(256, bytes.length));
+        return bytes;
+    }
+    
+    private synchronized void restorePending(byte[] bytes) {
+        ByteArrayOutputStream restored = new ByteArrayOutputStream(bytes.length + pending.size());
+        restored.write(bytes, 0, bytes.length);
+        restored.write(pending.toByteArray(), 0, pending.size());
+        pending = restored;
+    }
+    
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            logger.severe("Failed to write the progress journal: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Read one record
+     * 
+     * @return The payload, null at a clean end of the segment, or an empty array for a damaged record
+     */
+    private byte[] readRecord(DataInputStream data) throws IOException {
+        int length;
+        try {
+            length = data.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        
+        if (length <= 0 || length > MAX_RECORD_LENGTH) {
+            return new byte[0];
+        }
+        
+        try {
+            int checksum = data.readInt();
+            byte[] payload = new byte[length];
+            data.readFully(payload);
+            
+            crc.reset();
+            crc.update(payload, 0, length);
+            return (int) crc.getValue() == checksum ? payload : new byte[0];
+        } catch (EOFException e) {
+            return new byte[0];
+        }
+    }
+    
+    private void openSegment() throws IOException {
+        currentSegment = journalFolder.toPath().resolve(String.format("%s%06d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+        channel = FileChannel.open(currentSegment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+    
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        
+        if (!journalFolder.isDirectory()) {
+            return segments;
+        }
+        
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(journalFolder.toPath(),
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                if (segmentNumber(file) >= 0) {
+                    segments.add(file);
+                }
+            }
+        }
+        
+        Collections.sort(segments, (a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+        return segments;
+    }
+    
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.thefallersgames.progression.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import com.thefallersgames.progression.api.storage.PlayerDataStore;
+
+/**
+ * Player data store that packs all profiles into a fixed number of segment files, like Minecraft's region files.
+ * Players are spread over the segments by UUID hash, so the folder holds a handful of files however many
+ * players have joined. See RegionSegment for the file layout.
+ */
+public class RegionPlayerDataStore implements PlayerDataStore {
+    
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    
+    private final RegionSegment[] segments;
+    
+    /**
+     * Open (and if needed create) a region store
+     * 
+     * @param regionFolder The folder holding the segment files
+     * @param segmentCount The number of segments to create; an existing store keeps its own count
+     * @throws IOException if a segment cannot be opened, or an existing store is missing one of its segments
+     */
+    public RegionPlayerDataStore(File regionFolder, int segmentCount) throws IOException {
+        Path folder = regionFolder.toPath();
+        Files.createDirectories(folder);
+        
+        // Players are placed by hash, so the count of an existing store can't change. Each segment records it;
+        // stores written before that use the number of files
+        Path first = segmentPath(folder, 0);
+        int existing = countSegments(folder);
+        int count;
+        if (existing == 0) {
+            count = Math.max(1, segmentCount);
+        } else {
+            int recorded = Files.exists(first) ? RegionSegment.readSegmentCount(first) : 0;
+            count = recorded > 0 ? recorded : existing;
+        }
+        
+        // A missing segment would send its players' lookups to empty records, so don't open the store at all
+        if (existing > 0) {
+            for (int i = 0; i < count; i++) {
+                if (!Files.exists(segmentPath(folder, i))) {
+                    throw new IOException("Region segment " + segmentPath(folder, i).getFileName() + " of " + count
+                            + " is missing");
+                }
+            }
+        }
+        
+        RegionSegment[] opened = new RegionSegment[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                opened[i] = new RegionSegment(segmentPath(folder, i), count);
+            }
+        } catch (IOException e) {
+            for (RegionSegment segment : opened) {
+                if (segment != null) {
+                    segment.close();
+                }
+            }
+            throw e;
+        }
+        this.segments = opened;
+    }
+    
+    @Override
+    public Map<String, Map<String, Integer>> load(UUID playerId) throws IOException {
+        Map<String, Map<String, Integer>> progress = segmentFor(playerId).read(playerId);
+        return progress != null ? progress : new HashMap<>();
+    }
+    
+    @Override
+    public void save(UUID playerId, Map<String, Map<String, Integer>> progress) throws IOException {
+        RegionSegment segment = segmentFor(playerId);
+        segment.write(playerId, progress);
+        segment.sync();
+    }
+    
+    @Override
+    public void saveAll(Map<UUID, Map<String, Map<String, Integer>>> profiles) throws IOException {
+        Map<RegionSegment, Boolean> touched = new IdentityHashMap<>();
+        
+        for (Map.Entry<UUID, Map<String, Map<String, Integer>>> entry : profiles.entrySet()) {
+            RegionSegment segment = segmentFor(entry.getKey());
+            segment.write(entry.getKey(), entry.getValue());
+            touched.put(segment, Boolean.TRUE);
+        }
+        
+        // One sync per segment rather than per player
+        for (RegionSegment segment : touched.keySet()) {
+            segment.sync();
+        }
+    }
+    
+    @Override
+    public void delete(UUID playerId) throws IOException {
+        RegionSegment segment = segmentFor(playerId);
+        if (segment.delete(playerId)) {
+            segment.sync();
+        }
+    }
+    
+    @Override
+    public void forEach(BiConsumer<UUID, Map<String, Map<String, Integer>>> consumer) throws IOException {
+        for (RegionSegment segment : segments) {
+            segment.forEach(consumer);
+        }
+    }
+    
+    /**
+     * Defragment every segment, one at a time. Saves to other segments continue meanwhile.
+     * 
+     * @return The number of bytes reclaimed
+     * @throws IOException if a segment cannot be rewritten
+     */
+    public long compact() throws IOException {
+        long reclaimed = 0;
+        for (RegionSegment segment : segments) {
+            reclaimed += segment.compact();
+        }
+        return reclaimed;
+    }
+    
+    /**
+     * Get the space held by gaps left from moved and deleted records
+     * 
+     * @return The free byte count over all segments
+     * @throws IOException if a segment size cannot be read
+     */
+    public long getFreeBytes() throws IOException {
+        long free = 0;
+        for (RegionSegment segment : segments) {
+            free += segment.getFreeBytes();
+        }
+        return free;
+    }
+    
+    /**
+     * Get the number of stored players
+     * 
+     * @return The player count over all segments
+     */
+    public int size() {
+        int size = 0;
+        for (RegionSegment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (RegionSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+    
+    private RegionSegment segmentFor(UUID playerId) {
+        // Spread the UUID bits, version 4 UUIDs share fixed bits in the middle
+        long bits = playerId.getMostSignificantBits() ^ playerId.getLeastSignificantBits();
+        int hash = (int) (bits ^ (bits >>> 32));
+        hash ^= hash >>> 16;
+        return segments[Math.floorMod(hash, segments.length)];
+    }
+    
+    private static Path segmentPath(Path folder, int index) {
+        return folder.resolve(String.format("%s%03d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+    
+    private static int countSegments(Path folder) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path ignored : files) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
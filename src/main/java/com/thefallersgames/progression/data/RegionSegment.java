@@ -0,0 +1,467 @@
+package com.thefallersgames.progression.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * One file of a RegionPlayerDataStore, holding many players' profiles.
+ * 
+ * Layout: a 16 byte header (magic, version, index capacity, segment count of the store), the index of
+ * (uuid, offset, slot length, data length) entries, then the records. Records are binary profiles padded to whole sectors. A record is
+ * rewritten in place while it fits its slot; when it outgrows it, it moves to a free slot and the index
+ * entry is switched after the new copy is written. The index is kept in memory; records are read with
+ * positional reads into heap buffers rather than mapped, since a mapping keeps the file open until it is
+ * garbage collected and would stop the file from being replaced on Windows.
+ */
+class RegionSegment {
+    
+    /** File signature, "PRGR" */
+    static final int MAGIC = 0x50524752;
+    
+    static final int VERSION = 1;
+    
+    static final int SECTOR_SIZE = 256;
+    
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 32;
+    private static final int INITIAL_CAPACITY = 1024;
+    
+    private final Path file;
+    private final int segmentCount;
+    private final Map<UUID, Entry> index = new HashMap<>();
+    private final BitSet usedSlots = new BitSet();
+    // Free gaps between records, offset to length
+    private final TreeMap<Long, Long> freeSpace = new TreeMap<>();
+    private FileChannel channel;
+    private int capacity;
+    private long dataEnd;
+    
+    private static final class Entry {
+        final int slot;
+        long offset;
+        int slotLength;
+        int dataLength;
+        
+        Entry(int slot, long offset, int slotLength, int dataLength) {
+            this.slot = slot;
+            this.offset = offset;
+            this.slotLength = slotLength;
+            this.dataLength = dataLength;
+        }
+    }
+    
+    /**
+     * Open a segment file, creating it if it doesn't exist
+     * 
+     * @param file The segment file
+     * @param segmentCount The number of segments in the store, recorded in the header
+     * @throws IOException if the file cannot be opened, is not a segment or belongs to a store of another size
+     */
+    RegionSegment(Path file, int segmentCount) throws IOException {
+        this.file = file;
+        this.segmentCount = segmentCount;
+        
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            create(file, INITIAL_CAPACITY, segmentCount);
+        }
+        open();
+    }
+    
+    /**
+     * Read the segment count recorded in a segment file
+     * 
+     * @param file The segment file
+     * @return The count, or 0 if the file was written before the count was recorded
+     * @throws IOException if the file cannot be read or is not a segment
+     */
+    static int readSegmentCount(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException(file.getFileName() + " is truncated");
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException(file.getFileName() + " is not a progression region file");
+            }
+            header.getInt();
+            header.getInt();
+            return header.getInt();
+        }
+    }
+    
+    /**
+     * Read a player's profile
+     * 
+     * @param playerId The player's UUID
+     * @return The progress values, or null if the segment has no record for the player
+     * @throws IOException if the record cannot be read
+     */
+    synchronized Map<String, Map<String, Integer>> read(UUID playerId) throws IOException {
+        Entry entry = index.get(playerId);
+        return entry == null ? null : readRecord(entry);
+    }
+    
+    /**
+     * Write a player's profile. Not durable until sync is called.
+     * 
+     * @param playerId The player's UUID
+     * @param progress The progress values
+     * @throws IOException if the record cannot be written
+     */
+    synchronized void write(UUID playerId, Map<String, Map<String, Integer>> progress) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryProfileCodec.write(bytes, progress);
+        byte[] data = bytes.toByteArray();
+        
+        Entry entry = index.get(playerId);
+        if (entry != null && data.length <= entry.slotLength) {
+            writeFully(ByteBuffer.wrap(data), entry.offset);
+            entry.dataLength = data.length;
+            writeEntry(playerId, entry);
+            return;
+        }
+        
+        if (entry == null && usedSlots.nextClearBit(0) >= capacity) {
+            rewrite(capacity * 2);
+        }
+        
+        int slotLength = sectorAlign(data.length);
+        long offset = allocate(slotLength);
+        writeFully(ByteBuffer.wrap(data), offset);
+        
+        if (entry == null) {
+            int slot = usedSlots.nextClearBit(0);
+            usedSlots.set(slot);
+            entry = new Entry(slot, offset, slotLength, data.length);
+            index.put(playerId, entry);
+            writeEntry(playerId, entry);
+        } else {
+            // Switch the index to the new copy before the old slot can be reused
+            long oldOffset = entry.offset;
+            int oldLength = entry.slotLength;
+            entry.offset = offset;
+            entry.slotLength = slotLength;
+            entry.dataLength = data.length;
+            writeEntry(playerId, entry);
+            release(oldOffset, oldLength);
+        }
+    }
+    
+    /**
+     * Remove a player's profile
+     * 
+     * @param playerId The player's UUID
+     * @return true if the segment had a record for the player
+     * @throws IOException if the index cannot be written
+     */
+    synchronized boolean delete(UUID playerId) throws IOException {
+        Entry entry = index.remove(playerId);
+        if (entry == null) {
+            return false;
+        }
+        
+        writeFully(ByteBuffer.allocate(ENTRY_SIZE), entryPosition(entry.slot));
+        usedSlots.clear(entry.slot);
+        release(entry.offset, entry.slotLength);
+        return true;
+    }
+    
+    /**
+     * Visit every player in the segment
+     * 
+     * @param consumer Receives each player's UUID and progress values
+     * @throws IOException if a record cannot be read
+     */
+    synchronized void forEach(BiConsumer<UUID, Map<String, Map<String, Integer>>> consumer) throws IOException {
+        for (Map.Entry<UUID, Entry> entry : index.entrySet()) {
+            consumer.accept(entry.getKey(), readRecord(entry.getValue()));
+        }
+    }
+    
+    /**
+     * Flush written records and index entries to disk
+     * 
+     * @throws IOException if the file cannot be synced
+     */
+    synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+    
+    /**
+     * Rewrite the segment with its records packed back to back, dropping free space
+     * 
+     * @return The number of bytes reclaimed
+     * @throws IOException if the segment cannot be rewritten
+     */
+    synchronized long compact() throws IOException {
+        long before = channel.size();
+        int needed = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, index.size())) * 2);
+        rewrite(needed);
+        return before - channel.size();
+    }
+    
+    /**
+     * Get the bytes held by free gaps and the unused tail of the file
+     * 
+     * @return The free byte count
+     * @throws IOException if the file size cannot be read
+     */
+    synchronized long getFreeBytes() throws IOException {
+        // The last record may end short of its padded slot
+        long free = Math.max(0, channel.size() - dataEnd);
+        for (long length : freeSpace.values()) {
+            free += length;
+        }
+        return free;
+    }
+    
+    /**
+     * Get the number of players in the segment
+     * 
+     * @return The record count
+     */
+    synchronized int size() {
+        return index.size();
+    }
+    
+    synchronized void close() throws IOException {
+        channel.close();
+    }
+    
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index.clear();
+        usedSlots.clear();
+        freeSpace.clear();
+        
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            channel.close();
+            throw new IOException(file.getFileName() + " is not a progression region file");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            channel.close();
+            throw new IOException("Unsupported region format version " + version + " in " + file.getFileName());
+        }
+        capacity = header.getInt();
+        
+        // Players are placed by hash, so a segment only makes sense in a store of the size it was written for
+        int recordedCount = header.getInt();
+        if (recordedCount == 0) {
+            ByteBuffer count = ByteBuffer.allocate(4);
+            count.putInt(segmentCount).flip();
+            writeFully(count, 12);
+        } else if (recordedCount != segmentCount) {
+            channel.close();
+            throw new IOException(file.getFileName() + " belongs to a store of " + recordedCount + " segments, not "
+                    + segmentCount);
+        }
+        
+        ByteBuffer table = ByteBuffer.allocate(capacity * ENTRY_SIZE);
+        readFully(table, HEADER_SIZE);
+        table.flip();
+        List<Entry> live = new ArrayList<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            long most = table.getLong();
+            long least = table.getLong();
+            long offset = table.getLong();
+            int slotLength = table.getInt();
+            int dataLength = table.getInt();
+            
+            if (offset == 0) {
+                continue;
+            }
+            
+            Entry entry = new Entry(slot, offset, slotLength, dataLength);
+            index.put(new UUID(most, least), entry);
+            usedSlots.set(slot);
+            live.add(entry);
+        }
+        
+        // Everything between the records that no entry points at is free
+        live.sort((a, b) -> Long.compare(a.offset, b.offset));
+        long position = dataStart(capacity);
+        for (Entry entry : live) {
+            if (entry.offset > position) {
+                freeSpace.put(position, entry.offset - position);
+            }
+            position = Math.max(position, entry.offset + entry.slotLength);
+        }
+        dataEnd = position;
+    }
+    
+    /**
+     * Copy every record into a fresh file with the given index capacity and swap it in.
+     * If the swap fails, the segment stays open on the old file.
+     */
+    private void rewrite(int newCapacity) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        create(temp, newCapacity, segmentCount);
+        
+        try {
+            copyRecords(temp, newCapacity);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        
+        channel.close();
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The old file is untouched, so carry on with it
+            Files.deleteIfExists(temp);
+            open();
+            throw e;
+        }
+        open();
+    }
+    
+    private void copyRecords(Path temp, int newCapacity) throws IOException {
+        try (FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            long position = dataStart(newCapacity);
+            int slot = 0;
+            
+            for (Map.Entry<UUID, Entry> mapEntry : index.entrySet()) {
+                Entry entry = mapEntry.getValue();
+                ByteBuffer data = ByteBuffer.allocate(entry.dataLength);
+                readFully(data, entry.offset);
+                data.flip();
+                while (data.hasRemaining()) {
+                    target.write(data, position + data.position());
+                }
+                
+                ByteBuffer encoded = encodeEntry(mapEntry.getKey(), position, sectorAlign(entry.dataLength), entry.dataLength);
+                while (encoded.hasRemaining()) {
+                    target.write(encoded, entryPosition(slot) + encoded.position());
+                }
+                
+                position += sectorAlign(entry.dataLength);
+                slot++;
+            }
+            
+            target.force(true);
+        }
+    }
+    
+    private static void create(Path target, int capacity, int segmentCount) throws IOException {
+        try (FileChannel created = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(capacity).putInt(segmentCount);
+            header.flip();
+            while (header.hasRemaining()) {
+                created.write(header);
+            }
+            
+            // Extend the file over the empty index; unwritten bytes read back as zero
+            ByteBuffer last = ByteBuffer.allocate(1);
+            created.write(last, dataStart(capacity) - 1);
+        }
+    }
+    
+    private Map<String, Map<String, Integer>> readRecord(Entry entry) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(entry.dataLength);
+        readFully(data, entry.offset);
+        return BinaryProfileCodec.read(new ByteArrayInputStream(data.array()));
+    }
+    
+    private void writeEntry(UUID playerId, Entry entry) throws IOException {
+        writeFully(encodeEntry(playerId, entry.offset, entry.slotLength, entry.dataLength), entryPosition(entry.slot));
+    }
+    
+    private static ByteBuffer encodeEntry(UUID playerId, long offset, int slotLength, int dataLength) {
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE);
+        buffer.putLong(playerId.getMostSignificantBits());
+        buffer.putLong(playerId.getLeastSignificantBits());
+        buffer.putLong(offset);
+        buffer.putInt(slotLength);
+        buffer.putInt(dataLength);
+        buffer.flip();
+        return buffer;
+    }
+    
+    private long allocate(int length) {
+        for (Map.Entry<Long, Long> gap : freeSpace.entrySet()) {
+            if (gap.getValue() >= length) {
+                long offset = gap.getKey();
+                freeSpace.remove(offset);
+                if (gap.getValue() > length) {
+                    freeSpace.put(offset + length, gap.getValue() - length);
+                }
+                return offset;
+            }
+        }
+        
+        long offset = dataEnd;
+        dataEnd += length;
+        return offset;
+    }
+    
+    private void release(long offset, long length) {
+        Map.Entry<Long, Long> before = freeSpace.lowerEntry(offset);
+        if (before != null && before.getKey() + before.getValue() == offset) {
+            freeSpace.remove(before.getKey());
+            offset = before.getKey();
+            length += before.getValue();
+        }
+        
+        Long after = freeSpace.remove(offset + length);
+        if (after != null) {
+            length += after;
+        }
+        
+        if (offset + length == dataEnd) {
+            dataEnd = offset;
+        } else {
+            freeSpace.put(offset, length);
+        }
+    }
+    
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+    
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException(file.getFileName() + " is truncated");
+            }
+        }
+    }
+    
+    private static long entryPosition(int slot) {
+        return HEADER_SIZE + (long) slot * ENTRY_SIZE;
+    }
+    
+    private static long dataStart(int capacity) {
+        return sectorAlign(entryPosition(capacity));
+    }
+    
+    private static int sectorAlign(long length) {
+        return (int) ((length + SECTOR_SIZE - 1) / SECTOR_SIZE * SECTOR_SIZE);
+    }
+}
@@ -0,0 +1,197 @@
+package com.thefallersgames.progression.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import com.thefallersgames.progression.api.storage.PlayerDataStore;
+
+/**
+ * Player data store backed by an embedded SQLite database file.
+ * Progress lives in one normalized (uuid, type, key, value) table. Batches are written with
+ * prepared-statement batching inside a single transaction. The SQLite driver ships with the server.
+ */
+public class SqlitePlayerDataStore implements PlayerDataStore {
+    
+    private static final String TABLE = "progression_progress";
+    
+    private final Connection connection;
+    
+    /**
+     * Open (and if needed create) a SQLite player data store
+     * 
+     * @param databaseFile The database file
+     * @throws IOException if the database cannot be opened
+     */
+    public SqlitePlayerDataStore(File databaseFile) throws IOException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            this.connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+            
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                        + "uuid CHAR(36) NOT NULL, "
+                        + "type VARCHAR(64) NOT NULL, "
+                        + "progress_key VARCHAR(255) NOT NULL, "
+                        + "value INTEGER NOT NULL, "
+                        + "PRIMARY KEY (uuid, type, progress_key))");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_" + TABLE + "_type_key ON " + TABLE
+                        + " (type, progress_key)");
+            }
+        } catch (ClassNotFoundException | SQLException e) {
+            throw new IOException("Could not open SQLite database " + databaseFile.getName(), e);
+        }
+    }
+    
+    @Override
+    public synchronized Map<String, Map<String, Integer>> load(UUID playerId) throws IOException {
+        Map<String, Map<String, Integer>> progress = new HashMap<>();
+        
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT type, progress_key, value FROM " + TABLE + " WHERE uuid = ?")) {
+            statement.setString(1, playerId.toString());
+            
+            try (ResultSet results = statement.executeQuery()) {
+                while (results.next()) {
+                    progress.computeIfAbsent(results.getString(1), k -> new HashMap<>())
+                            .put(results.getString(2), results.getInt(3));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to load player " + playerId, e);
+        }
+        
+        return progress;
+    }
+    
+    @Override
+    public void save(UUID playerId, Map<String, Map<String, Integer>> progress) throws IOException {
+        Map<UUID, Map<String, Map<String, Integer>>> batch = new HashMap<>();
+        batch.put(playerId, progress);
+        saveAll(batch);
+    }
+    
+    @Override
+    public synchronized void saveAll(Map<UUID, Map<String, Map<String, Integer>>> profiles) throws IOException {
+        if (profiles.isEmpty()) {
+            return;
+        }
+        
+        try {
+            connection.setAutoCommit(false);
+            
+            // Each save replaces the player's rows, so keys dropped from a profile don't linger
+            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE uuid = ?")) {
+                for (UUID playerId : profiles.keySet()) {
+                    statement.setString(1, playerId.toString());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO " + TABLE + " (uuid, type, progress_key, value) VALUES (?, ?, ?, ?)")) {
+                for (Map.Entry<UUID, Map<String, Map<String, Integer>>> profile : profiles.entrySet()) {
+                    String uuid = profile.getKey().toString();
+                    
+                    for (Map.Entry<String, Map<String, Integer>> typeEntry : profile.getValue().entrySet()) {
+                        for (Map.Entry<String, Integer> entry : typeEntry.getValue().entrySet()) {
+                            statement.setString(1, uuid);
+                            statement.setString(2, typeEntry.getKey());
+                            statement.setString(3, entry.getKey());
+                            statement.setInt(4, entry.getValue());
+                            statement.addBatch();
+                        }
+                    }
+                }
+                
+                statement.executeBatch();
+            }
+            
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Failed to save " + profiles.size() + " players", e);
+        } finally {
+            restoreAutoCommit();
+        }
+    }
+    
+    @Override
+    public synchronized void delete(UUID playerId) throws IOException {
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE uuid = ?")) {
+            statement.setString(1, playerId.toString());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException("Failed to delete player " + playerId, e);
+        }
+    }
+    
+    @Override
+    public synchronized void forEach(BiConsumer<UUID, Map<String, Map<String, Integer>>> consumer) throws IOException {
+        try (Statement statement = connection.createStatement();
+             ResultSet results = statement.executeQuery(
+                     "SELECT uuid, type, progress_key, value FROM " + TABLE + " ORDER BY uuid")) {
+            String currentId = null;
+            Map<String, Map<String, Integer>> progress = null;
+            
+            // Rows arrive grouped by player, so only one player is held in memory at a time
+            while (results.next()) {
+                String uuid = results.getString(1);
+                
+                if (!uuid.equals(currentId)) {
+                    if (progress != null) {
+                        consumer.accept(UUID.fromString(currentId), progress);
+                    }
+                    currentId = uuid;
+                    progress = new HashMap<>();
+                }
+                
+                progress.computeIfAbsent(results.getString(2), k -> new HashMap<>())
+                        .put(results.getString(3), results.getInt(4));
+            }
+            
+            if (progress != null) {
+                consumer.accept(UUID.fromString(currentId), progress);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to read players", e);
+        }
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException("Failed to close SQLite database", e);
+        }
+    }
+    
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException ignored) {
+            // The original failure is more useful than the rollback failure
+        }
+    }
+    
+    private void restoreAutoCommit() {
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException ignored) {
+            // The connection is broken; the next call will report it
+        }
+    }
+}
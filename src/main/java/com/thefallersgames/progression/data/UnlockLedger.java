@@ -0,0 +1,95 @@
+package com.thefallersgames.progression.data;
+
+import java.util.Arrays;
+
+/**
+ * Per-player record of which locked items are unlocked, indexed by the item's ordinal
+ * in the loaded configuration. Lock checks on hot listener paths read a single entry
+ * instead of re-evaluating the item's condition tree.
+ * 
+ * Each item takes two bits: unknown, locked or unlocked. Entries belong to a configuration
+ * generation; after a reload renumbers the items, entries from the old generation read as unknown.
+ * Reads are lock-free; writers publish a new copy, which is cheap for the few words a ledger holds.
+ * Within a generation an unlocked item never reads as locked again: progress only grows, and a thread
+ * that read a stale counter must not overwrite an unlock another thread just recorded. Admin actions
+ * that take progress away clear the ledger instead.
+ */
+public class UnlockLedger {
+    
+    public static final int UNKNOWN = 0;
+    public static final int LOCKED = 1;
+    public static final int UNLOCKED = 2;
+    
+    private static final int ITEMS_PER_WORD = 32;
+    
+    private volatile int generation;
+    private volatile long[] words;
+    
+    /**
+     * Create a new, empty UnlockLedger
+     */
+    public UnlockLedger() {
+        this.words = new long[0];
+    }
+    
+    /**
+     * Get the state of an item
+     * 
+     * @param generation The configuration generation the ordinal belongs to
+     * @param ordinal The item's ordinal
+     * @return UNKNOWN, LOCKED or UNLOCKED
+     */
+    public int get(int generation, int ordinal) {
+        // Read the generation before the words; set() publishes them in the opposite order
+        if (generation != this.generation) {
+            return UNKNOWN;
+        }
+        
+        long[] current = words;
+        if (ordinal / ITEMS_PER_WORD >= current.length) {
+            return UNKNOWN;
+        }
+        
+        return (int) (current[ordinal / ITEMS_PER_WORD] >>> shift(ordinal)) & 3;
+    }
+    
+    /**
+     * Set the state of an item. An item recorded as unlocked in the same generation stays unlocked.
+     * 
+     * @param generation The configuration generation the ordinal belongs to
+     * @param ordinal The item's ordinal
+     * @param state UNKNOWN, LOCKED or UNLOCKED
+     * @return The state the item has after the call, which is UNLOCKED if a downgrade was refused
+     */
+    public synchronized int set(int generation, int ordinal, int state) {
+        long[] updated;
+        if (generation != this.generation) {
+            // Entries from an older configuration are meaningless now
+            updated = new long[ordinal / ITEMS_PER_WORD + 1];
+        } else {
+            if (state != UNLOCKED && get(generation, ordinal) == UNLOCKED) {
+                return UNLOCKED;
+            }
+            updated = Arrays.copyOf(words, Math.max(words.length, ordinal / ITEMS_PER_WORD + 1));
+        }
+        
+        int index = ordinal / ITEMS_PER_WORD;
+        updated[index] = (updated[index] & ~(3L << shift(ordinal))) | ((long) state << shift(ordinal));
+        
+        // Publish the words before the generation, so a reader matching the generation sees them
+        words = updated;
+        this.generation = generation;
+        return state;
+    }
+    
+    /**
+     * Forget every entry, e.g. after an admin changed the player's progress
+     */
+    public synchronized void clear() {
+        words = new long[0];
+    }
+    
+    private static int shift(int ordinal) {
+        return (ordinal % ITEMS_PER_WORD) * 2;
+    }
+}
@@ -6,9 +6,11 @@ import org.bukkit.inventory.ItemStack;
 
 import com.thefallersgames.progression.api.condition.ProgressCondition;
 import com.thefallersgames.progression.api.event.ItemUnlockEvent;
+import com.thefallersgames.progression.api.facade.ItemLockStatus;
 import com.thefallersgames.progression.api.facade.UnlockFacade;
+import com.thefallersgames.progression.api.service.NotificationService;
 import com.thefallersgames.progression.api.service.ProgressService;
-import com.thefallersgames.progression.util.ItemUtil;
+import com.thefallersgames.progression.data.PlayerDataManager;
 
 /**
  * Implementation of UnlockFacade that simplifies interaction with the progression system.
@@ -16,75 +18,72 @@ import com.thefallersgames.progression.util.ItemUtil;
 public class ProgressionFacade implements UnlockFacade {
     
     private final ProgressService progressService;
+    private final PlayerDataManager dataManager;
+    private final NotificationService notificationService;
     
-    public ProgressionFacade(ProgressService progressService) {
+    public ProgressionFacade(ProgressService progressService, PlayerDataManager dataManager,
+            NotificationService notificationService) {
         this.progressService = progressService;
+        this.dataManager = dataManager;
+        this.notificationService = notificationService;
     }
     
     @Override
-    public boolean canUseItem(Player player, ItemStack item) {
-        if (player.hasPermission("progression.bypass")) {
-            return true;
+    public ItemLockStatus getLockStatus(Player player, ItemStack item) {
+        String itemId = progressService.resolveItemId(item);
+        ProgressCondition condition = progressService.getItemCondition(itemId);
+        if (condition == null) {
+            return ItemLockStatus.untracked();
         }
         
-        if (!isTrackedItem(item)) {
-            return true;
-        }
+        // Don't enforce locks on bypassing players or until the player's real progress is loaded
+        boolean locked = !player.hasPermission("progression.bypass")
+                && dataManager.isProfileReady(player.getUniqueId())
+                && progressService.isItemLocked(player, itemId);
         
-        return !progressService.isItemLocked(player, item);
+        return new ItemLockStatus(itemId, condition, locked,
+                () -> renderStatusMessage(player, itemId, condition, locked));
+    }
+    
+    @Override
+    public boolean canUseItem(Player player, ItemStack item) {
+        return getLockStatus(player, item).canUse();
     }
     
     @Override
     public boolean handleItemUse(Player player, ItemStack item) {
-        if (!isTrackedItem(item)) {
+        ItemLockStatus status = getLockStatus(player, item);
+        if (status.canUse()) {
             return true;
         }
         
-        if (canUseItem(player, item)) {
-            // Player can use the item
-            return true;
-        } else {
-            // Item is locked, send message
-            player.sendMessage(ChatColor.RED + progressService.getItemLockMessage(player, item));
-            
-            // Cancel the action
-            return false;
-        }
+        // Item is locked, tell the player and cancel the action
+        notificationService.notifyLocked(player, status);
+        return false;
     }
     
     @Override
     public boolean isTrackedItem(ItemStack item) {
-        if (item == null) {
-            return false;
-        }
-        
-        String itemId = ItemUtil.getItemId(item);
         return progressService.getItemCondition(item) != null;
     }
     
     @Override
     public String getItemStatusMessage(Player player, ItemStack item) {
-        if (!isTrackedItem(item)) {
-            return ChatColor.GREEN + "This item is not restricted.";
-        }
-        
-        ProgressCondition condition = progressService.getItemCondition(item);
-        
-        if (condition == null) {
-            return ChatColor.GREEN + "This item is not restricted.";
-        }
-        
-        // Add details about the item identification
+        return getLockStatus(player, item).getMessage();
+    }
+    
+    private String renderStatusMessage(Player player, String itemId, ProgressCondition condition, boolean locked) {
         StringBuilder message = new StringBuilder();
         
-        if (progressService.meetsCondition(player, condition)) {
+        // A locked item is known to be unmet; only a usable item needs its condition evaluated
+        if (!locked && progressService.meetsCondition(player, condition)) {
             message.append(ChatColor.GREEN).append("You have unlocked this item! (")
                   .append(condition.getCurrentProgress(player)).append("/")
                   .append(condition.getRequiredProgress()).append(")");
         } else {
-            message.append(ChatColor.RED).append(progressService.getItemLockMessage(player, item));
+            message.append(ChatColor.RED).append(progressService.getItemLockMessage(player, itemId));
         }
         
         return message.toString();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -9,10 +9,12 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
-import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.inventory.ItemStack;
 
+import com.thefallersgames.progression.api.facade.ItemLockStatus;
 import com.thefallersgames.progression.api.facade.UnlockFacade;
+import com.thefallersgames.progression.api.service.NotificationService;
+import com.thefallersgames.progression.data.PlayerDataManager;
 
 /**
  * Listener for inventory events that checks if players can use locked items.
@@ -21,14 +23,20 @@ import com.thefallersgames.progression.api.facade.UnlockFacade;
 public class InventoryListener implements Listener {
     
     private final UnlockFacade unlockFacade;
+    private final NotificationService notificationService;
+    private final PlayerDataManager dataManager;
     
     /**
      * Create a new InventoryListener
      * 
      * @param unlockFacade The facade for progression checking
+     * @param notificationService The service telling players about locked items
+     * @param dataManager The player data manager, used to wait for loaded profiles
      */
-    public InventoryListener(UnlockFacade unlockFacade) {
+    public InventoryListener(UnlockFacade unlockFacade, NotificationService notificationService, PlayerDataManager dataManager) {
         this.unlockFacade = unlockFacade;
+        this.notificationService = notificationService;
+        this.dataManager = dataManager;
     }
     
     /**
@@ -48,10 +56,11 @@ public class InventoryListener implements Listener {
             return;
         }
         
-        // Check if the item is tracked and the player can use it
-        if (unlockFacade.isTrackedItem(item) && !unlockFacade.canUseItem(player, item)) {
+        // Resolve the item once for both the lock check and the message
+        ItemLockStatus status = unlockFacade.getLockStatus(player, item);
+        if (status.isLocked()) {
             event.setCancelled(true);
-            player.sendMessage(unlockFacade.getItemStatusMessage(player, item));
+            notificationService.notifyLocked(player, status);
             player.closeInventory();
         }
     }
@@ -73,10 +82,11 @@ public class InventoryListener implements Listener {
             return;
         }
         
-        // Check if the item is tracked and the player can use it
-        if (unlockFacade.isTrackedItem(item) && !unlockFacade.canUseItem(player, item)) {
+        // Resolve the item once for both the lock check and the message
+        ItemLockStatus status = unlockFacade.getLockStatus(player, item);
+        if (status.isLocked()) {
             event.setCancelled(true);
-            player.sendMessage(unlockFacade.getItemStatusMessage(player, item));
+            notificationService.notifyLocked(player, status);
             player.closeInventory();
         }
     }
@@ -87,6 +97,11 @@ public class InventoryListener implements Listener {
      * @param player The player whose inventory should be checked
      */
     public void dropLockedItems(Player player) {
+        // Never enforce locks against a profile that hasn't finished loading
+        if (!dataManager.isProfileReady(player.getUniqueId())) {
+            return;
+        }
+        
         // Keep track of types of items dropped to avoid spamming messages
         Set<String> droppedItemTypes = new HashSet<>();
         boolean anyDropped = false;
@@ -98,7 +113,7 @@ public class InventoryListener implements Listener {
                 continue;
             }
             
-            if (unlockFacade.isTrackedItem(item) && !unlockFacade.canUseItem(player, item)) {
+            if (unlockFacade.getLockStatus(player, item).isLocked()) {
                 // Drop the item at the player's location
                 player.getWorld().dropItemNaturally(player.getLocation(), item);
                 
@@ -117,15 +132,7 @@ public class InventoryListener implements Listener {
         
         // Send a single message if any items were dropped
         if (anyDropped) {
-            player.sendMessage("§cSome items you can't use yet have been dropped at your feet.");
+            notificationService.send(player, "§cSome items you can't use yet have been dropped at your feet.");
         }
     }
-    
-    /**
-     * Handle player join events to check inventory for locked items
-     */
-    @EventHandler(priority = EventPriority.NORMAL)
-    public void onPlayerJoin(PlayerJoinEvent event) {
-        dropLockedItems(event.getPlayer());
-    }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,9 +1,6 @@
 package com.thefallersgames.progression.listener;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-
+import org.bukkit.Location;
 import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -11,38 +8,54 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerPickupItemEvent;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.plugin.Plugin;
 
+import com.thefallersgames.progression.api.event.ItemUnlockEvent;
+import com.thefallersgames.progression.api.facade.ItemLockStatus;
 import com.thefallersgames.progression.api.facade.UnlockFacade;
+import com.thefallersgames.progression.api.service.NotificationService;
+import com.thefallersgames.progression.service.InventorySweepScheduler;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Listener for item pickup events that checks if players can pick up locked items.
  * Uses the UnlockFacade to hide complexity of the progression system.
+ * A player standing on a locked item tries to pick it up every tick, so the locked status of each item
+ * entity is kept for a short while and the repeated attempts are cancelled without resolving the item again.
+ * The kept statuses of a player are dropped when they unlock an item.
  */
 @SuppressWarnings("deprecation") // Using deprecated API for compatibility
 public class ItemPickupListener implements Listener {
     
+    /**
+     * How long a locked status is reused for repeated pickup attempts of the same item entity
+     */
+    private static final long LOCKED_STATUS_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
     private final UnlockFacade unlockFacade;
-    private final InventoryListener inventoryListener;
-    private final Plugin plugin;
+    private final NotificationService notificationService;
+    private final InventorySweepScheduler inventorySweeper;
     
-    // Track when messages were last sent to a player about specific locked items
-    private final Map<UUID, Map<UUID, Long>> lastMessageTime = new HashMap<>();
-    // Cooldown in milliseconds (5 seconds)
-    private static final long MESSAGE_COOLDOWN = 5000;
+    // Keyed weakly so entries go away with their item entity; only used from the main thread
+    private final Map<Item, LockedPickup> lockedPickups = new WeakHashMap<>();
+    private final Location itemLocation = new Location(null, 0, 0, 0);
+    private final Location playerLocation = new Location(null, 0, 0, 0);
     
     /**
      * Create a new ItemPickupListener
      * 
      * @param unlockFacade The facade for progression checking
-     * @param inventoryListener The inventory listener for checking locked items
-     * @param plugin The plugin instance for scheduling tasks
+     * @param notificationService The service telling players about locked items
+     * @param inventorySweeper The scheduler sweeping inventories for locked items
      */
-    public ItemPickupListener(UnlockFacade unlockFacade, InventoryListener inventoryListener, Plugin plugin) {
+    public ItemPickupListener(UnlockFacade unlockFacade, NotificationService notificationService, InventorySweepScheduler inventorySweeper) {
         this.unlockFacade = unlockFacade;
-        this.inventoryListener = inventoryListener;
-        this.plugin = plugin;
+        this.notificationService = notificationService;
+        this.inventorySweeper = inventorySweeper;
     }
     
     /**
@@ -53,40 +66,64 @@ public class ItemPickupListener implements Listener {
     public void onItemPickup(PlayerPickupItemEvent event) {
         Player player = event.getPlayer();
         Item itemEntity = event.getItem();
-        ItemStack item = itemEntity.getItemStack();
+        long now = System.nanoTime();
+        
+        // A repeated attempt at the same locked item reuses the status instead of resolving the item again
+        LockedPickup pickup = lockedPickups.get(itemEntity);
+        ItemLockStatus status;
+        if (pickup != null && pickup.playerId.equals(player.getUniqueId())
+                && now - pickup.resolvedAt < LOCKED_STATUS_TTL_NANOS) {
+            status = pickup.status;
+        } else {
+            ItemStack item = itemEntity.getItemStack();
+            status = unlockFacade.getLockStatus(player, item);
+            if (status.isLocked()) {
+                if (pickup == null) {
+                    pickup = new LockedPickup();
+                    lockedPickups.put(itemEntity, pickup);
+                }
+                pickup.playerId = player.getUniqueId();
+                pickup.status = status;
+                pickup.resolvedAt = now;
+            } else if (pickup != null) {
+                lockedPickups.remove(itemEntity);
+            }
+        }
         
-        // Check if the item is tracked and the player can use it
-        if (unlockFacade.isTrackedItem(item) && !unlockFacade.canUseItem(player, item)) {
+        if (status.isLocked()) {
             event.setCancelled(true);
             
-            // Only send message if the player is close to the item AND we haven't sent a message recently
-            if (event.getItem().getLocation().distanceSquared(player.getLocation()) < 4) {
-                // Check if we should send a message (based on cooldown)
-                UUID playerUuid = player.getUniqueId();
-                UUID itemEntityUuid = itemEntity.getUniqueId();
-                
-                // Get or create the player's message map
-                Map<UUID, Long> playerMessages = lastMessageTime.computeIfAbsent(playerUuid, k -> new HashMap<>());
-                
-                // Get the last time we sent a message about this item
-                Long lastTime = playerMessages.get(itemEntityUuid);
-                long currentTime = System.currentTimeMillis();
-                
-                // If we haven't sent a message recently, send one and update the time
-                if (lastTime == null || (currentTime - lastTime) > MESSAGE_COOLDOWN) {
-                    player.sendMessage(unlockFacade.getItemStatusMessage(player, item));
-                    playerMessages.put(itemEntityUuid, currentTime);
-                }
+            // Only tell the player if they are close to the item; the service throttles repeats
+            if (itemEntity.getLocation(itemLocation).distanceSquared(player.getLocation(playerLocation)) < 4) {
+                notificationService.notifyLocked(player, status);
             }
         } else {
-            // The item was picked up, schedule a task to check the player's inventory
+            // The item was picked up, have the player's inventory checked next tick
             // for any other locked items (that might have just become locked)
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    inventoryListener.dropLockedItems(player);
-                }
-            }.runTaskLater(plugin, 1L);
+            inventorySweeper.requestSweep(player);
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Drop the kept statuses of a player who unlocked an item, so they can pick it up right away
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onItemUnlock(ItemUnlockEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        Iterator<LockedPickup> pickups = lockedPickups.values().iterator();
+        while (pickups.hasNext()) {
+            if (pickups.next().playerId.equals(playerId)) {
+                pickups.remove();
+            }
+        }
+    }
+    
+    /**
+     * The locked status last resolved for an item entity, and for whom
+     */
+    private static class LockedPickup {
+        private UUID playerId;
+        private ItemLockStatus status;
+        private long resolvedAt;
+    }
+}
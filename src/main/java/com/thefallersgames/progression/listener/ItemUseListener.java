@@ -8,10 +8,11 @@ import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerItemConsumeEvent;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.plugin.Plugin;
 
+import com.thefallersgames.progression.api.facade.ItemLockStatus;
 import com.thefallersgames.progression.api.facade.UnlockFacade;
+import com.thefallersgames.progression.api.service.NotificationService;
+import com.thefallersgames.progression.service.InventorySweepScheduler;
 
 /**
  * Listener for item use events that checks if players can use locked items.
@@ -20,20 +21,20 @@ import com.thefallersgames.progression.api.facade.UnlockFacade;
 public class ItemUseListener implements Listener {
     
     private final UnlockFacade unlockFacade;
-    private final InventoryListener inventoryListener;
-    private final Plugin plugin;
+    private final NotificationService notificationService;
+    private final InventorySweepScheduler inventorySweeper;
     
     /**
      * Create a new ItemUseListener
      * 
      * @param unlockFacade The facade for progression checking
-     * @param inventoryListener The inventory listener for checking locked items
-     * @param plugin The plugin instance for scheduling tasks
+     * @param notificationService The service telling players about locked items
+     * @param inventorySweeper The scheduler sweeping inventories for locked items
      */
-    public ItemUseListener(UnlockFacade unlockFacade, InventoryListener inventoryListener, Plugin plugin) {
+    public ItemUseListener(UnlockFacade unlockFacade, NotificationService notificationService, InventorySweepScheduler inventorySweeper) {
         this.unlockFacade = unlockFacade;
-        this.inventoryListener = inventoryListener;
-        this.plugin = plugin;
+        this.notificationService = notificationService;
+        this.inventorySweeper = inventorySweeper;
     }
     
     /**
@@ -51,14 +52,12 @@ public class ItemUseListener implements Listener {
         }
         
         // Check if the player can use the item, cancel if not
-        if (!unlockFacade.handleItemUse(player, item)) {
-            // Schedule a task to drop locked items from inventory
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    inventoryListener.dropLockedItems(player);
-                }
-            }.runTaskLater(plugin, 1L);
+        ItemLockStatus status = unlockFacade.getLockStatus(player, item);
+        if (status.isLocked()) {
+            notificationService.notifyLocked(player, status);
+            
+            // Drop locked items from inventory on the next sweep
+            inventorySweeper.requestSweep(player);
             
             event.setCancelled(true);
         }
@@ -73,14 +72,12 @@ public class ItemUseListener implements Listener {
         ItemStack item = event.getItem();
         
         // Check if the player can use the item, cancel if not
-        if (!unlockFacade.handleItemUse(player, item)) {
-            // Schedule a task to drop locked items from inventory
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    inventoryListener.dropLockedItems(player);
-                }
-            }.runTaskLater(plugin, 1L);
+        ItemLockStatus status = unlockFacade.getLockStatus(player, item);
+        if (status.isLocked()) {
+            notificationService.notifyLocked(player, status);
+            
+            // Drop locked items from inventory on the next sweep
+            inventorySweeper.requestSweep(player);
             
             event.setCancelled(true);
         }
@@ -10,10 +10,11 @@ import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.plugin.Plugin;
 
+import com.thefallersgames.progression.api.facade.ItemLockStatus;
 import com.thefallersgames.progression.api.facade.UnlockFacade;
+import com.thefallersgames.progression.api.service.NotificationService;
+import com.thefallersgames.progression.service.InventorySweepScheduler;
 
 /**
  * Listener for equipment events that checks if players can equip or use locked items.
@@ -22,20 +23,20 @@ import com.thefallersgames.progression.api.facade.UnlockFacade;
 public class PlayerEquipListener implements Listener {
     
     private final UnlockFacade unlockFacade;
-    private final InventoryListener inventoryListener;
-    private final Plugin plugin;
+    private final NotificationService notificationService;
+    private final InventorySweepScheduler inventorySweeper;
     
     /**
      * Create a new PlayerEquipListener
      * 
      * @param unlockFacade The facade for progression checking
-     * @param inventoryListener The inventory listener for checking locked items
-     * @param plugin The plugin instance for scheduling tasks
+     * @param notificationService The service telling players about locked items
+     * @param inventorySweeper The scheduler sweeping inventories for locked items
      */
-    public PlayerEquipListener(UnlockFacade unlockFacade, InventoryListener inventoryListener, Plugin plugin) {
+    public PlayerEquipListener(UnlockFacade unlockFacade, NotificationService notificationService, InventorySweepScheduler inventorySweeper) {
         this.unlockFacade = unlockFacade;
-        this.inventoryListener = inventoryListener;
-        this.plugin = plugin;
+        this.notificationService = notificationService;
+        this.inventorySweeper = inventorySweeper;
     }
     
     /**
@@ -51,18 +52,14 @@ public class PlayerEquipListener implements Listener {
             return;
         }
         
-        // Check if the item is tracked and the player can use it
-        if (unlockFacade.isTrackedItem(item) && !unlockFacade.canUseItem(player, item)) {
-            // Instead of just cancelling, schedule a task to drop the item
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    inventoryListener.dropLockedItems(player);
-                }
-            }.runTaskLater(plugin, 1L);
+        // Resolve the item once for both the lock check and the message
+        ItemLockStatus status = unlockFacade.getLockStatus(player, item);
+        if (status.isLocked()) {
+            // Instead of just cancelling, drop the item on the next sweep
+            inventorySweeper.requestSweep(player);
             
             event.setCancelled(true);
-            player.sendMessage(unlockFacade.getItemStatusMessage(player, item));
+            notificationService.notifyLocked(player, status);
         }
     }
     
@@ -75,18 +72,14 @@ public class PlayerEquipListener implements Listener {
         Player player = event.getPlayer();
         ItemStack item = event.getItemInHand();
         
-        // Check if the item is tracked and the player can use it
-        if (unlockFacade.isTrackedItem(item) && !unlockFacade.canUseItem(player, item)) {
-            // Instead of just cancelling, schedule a task to drop the item
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    inventoryListener.dropLockedItems(player);
-                }
-            }.runTaskLater(plugin, 1L);
+        // Resolve the item once for both the lock check and the message
+        ItemLockStatus status = unlockFacade.getLockStatus(player, item);
+        if (status.isLocked()) {
+            // Instead of just cancelling, drop the item on the next sweep
+            inventorySweeper.requestSweep(player);
             
             event.setCancelled(true);
-            player.sendMessage(unlockFacade.getItemStatusMessage(player, item));
+            notificationService.notifyLocked(player, status);
         }
     }
     
@@ -102,14 +95,15 @@ public class PlayerEquipListener implements Listener {
         Player player = (Player) event.getEntity();
         ItemStack item = event.getItem().getItemStack();
         
-        // Check if the item is tracked and the player can use it
-        if (unlockFacade.isTrackedItem(item) && !unlockFacade.canUseItem(player, item)) {
+        // Resolve the item once for both the lock check and the message
+        ItemLockStatus status = unlockFacade.getLockStatus(player, item);
+        if (status.isLocked()) {
             event.setCancelled(true);
             
             // Only send message if the player is close to the item
             // This prevents spam if a player stands near an item they can't pick up
             if (event.getItem().getLocation().distanceSquared(player.getLocation()) < 4) {
-                player.sendMessage(unlockFacade.getItemStatusMessage(player, item));
+                notificationService.notifyLocked(player, status);
             }
         }
     }
@@ -122,12 +116,7 @@ public class PlayerEquipListener implements Listener {
         // Check inventory after respawn to drop any locked items
         final Player player = event.getPlayer();
         
-        // Schedule a task to run after the respawn process is complete
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                inventoryListener.dropLockedItems(player);
-            }
-        }.runTaskLater(plugin, 1L);
+        // Sweep on the next tick, after the respawn process is complete
+        inventorySweeper.requestSweep(player);
     }
 } 
\ No newline at end of file
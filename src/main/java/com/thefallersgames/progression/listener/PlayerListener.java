@@ -4,11 +4,13 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.plugin.Plugin;
 
+import com.thefallersgames.progression.adapter.PlaceholderValueCache;
+import com.thefallersgames.progression.api.service.NotificationService;
 import com.thefallersgames.progression.data.PlayerDataManager;
 
 /**
@@ -17,39 +19,62 @@ import com.thefallersgames.progression.data.PlayerDataManager;
 public class PlayerListener implements Listener {
     
     private final PlayerDataManager dataManager;
+    private final NotificationService notificationService;
+    private final PlaceholderValueCache placeholderValueCache;
     private final InventoryListener inventoryListener;
-    private final Plugin plugin;
     
     /**
      * Create a new PlayerListener
      * 
      * @param dataManager The player data manager
+     * @param notificationService The service whose record of sent messages is dropped on quit
+     * @param placeholderValueCache The cache whose sampled values are dropped on quit
      * @param inventoryListener The inventory listener for checking locked items
-     * @param plugin The plugin instance for scheduling tasks
      */
-    public PlayerListener(PlayerDataManager dataManager, InventoryListener inventoryListener, Plugin plugin) {
+    public PlayerListener(PlayerDataManager dataManager, NotificationService notificationService,
+            PlaceholderValueCache placeholderValueCache, InventoryListener inventoryListener) {
         this.dataManager = dataManager;
+        this.notificationService = notificationService;
+        this.placeholderValueCache = placeholderValueCache;
         this.inventoryListener = inventoryListener;
-        this.plugin = plugin;
+    }
+    
+    /**
+     * Handle async pre-login events
+     * This reads the player's data off the server thread before they join
+     */
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        
+        if (!dataManager.preloadPlayerData(event.getUniqueId()) && dataManager.isDenyOnLoadTimeout()) {
+            dataManager.discardPendingLoad(event.getUniqueId());
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, dataManager.getLoadTimeoutMessage());
+        }
+    }
+    
+    /**
+     * Handle player login events
+     * Drops preloaded data when another plugin refuses the login
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            dataManager.discardPendingLoad(event.getPlayer().getUniqueId());
+        }
     }
     
     /**
      * Handle player join events
      */
-    @EventHandler(priority = EventPriority.NORMAL)
+    @EventHandler(priority = EventPriority.LOWEST)
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
         
-        // Load player progression data
-        dataManager.loadPlayerData(player.getUniqueId());
-        
-        // Schedule a task to check inventory for locked items after data is loaded
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                inventoryListener.dropLockedItems(player);
-            }
-        }.runTaskLater(plugin, 10L); // Slightly longer delay to ensure data is loaded
+        // Install the preloaded data and check inventory for locked items once it is in place
+        dataManager.activatePlayerData(player.getUniqueId(), () -> inventoryListener.dropLockedItems(player));
     }
     
     /**
@@ -59,7 +84,9 @@ public class PlayerListener implements Listener {
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         
-        // Save player progression data
-        dataManager.savePlayerData(player.getUniqueId());
+        // Save player progression data, keeping it cached for a quick reconnect
+        dataManager.releasePlayerData(player.getUniqueId());
+        notificationService.forget(player.getUniqueId());
+        placeholderValueCache.forget(player.getUniqueId());
     }
 } 
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.thefallersgames.progression.listener;
 
-import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -10,31 +11,65 @@ import org.bukkit.event.inventory.InventoryPickupItemEvent;
 import org.bukkit.event.player.PlayerPickupItemEvent;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.plugin.Plugin;
 
-import com.thefallersgames.progression.api.service.ProgressService;
+import com.thefallersgames.progression.data.CounterRegistry;
+import com.thefallersgames.progression.service.ProgressAggregator;
 
 /**
  * Listener for progression-related events to track player progress.
+ * Progress is buffered in the ProgressAggregator, which applies it and checks for locked items once per tick.
  */
 public class ProgressionListener implements Listener {
     
-    private final ProgressService progressService;
-    private final InventoryListener inventoryListener;
-    private final Plugin plugin;
+    private final ProgressAggregator progressAggregator;
+    private final CounterRegistry counterRegistry;
+    
+    // Counter slots by EntityType or Material ordinal, -1 where no loaded condition tracks the counter
+    private int[] killSlots;
+    private int[] collectSlots;
+    private int[] breakSlots;
+    private int resolvedVersion = -1;
     
     /**
      * Create a new ProgressionListener
      * 
-     * @param progressService The progress service
-     * @param inventoryListener The inventory listener for checking locked items
-     * @param plugin The plugin instance for scheduling tasks
+     * @param progressAggregator The aggregator buffering progress until the next flush
+     * @param counterRegistry The registry of tracked counters
+     */
+    public ProgressionListener(ProgressAggregator progressAggregator, CounterRegistry counterRegistry) {
+        this.progressAggregator = progressAggregator;
+        this.counterRegistry = counterRegistry;
+    }
+    
+    /**
+     * Re-resolve the slot tables if counters were registered or the tracking filter changed since they were built
      */
-    public ProgressionListener(ProgressService progressService, InventoryListener inventoryListener, Plugin plugin) {
-        this.progressService = progressService;
-        this.inventoryListener = inventoryListener;
-        this.plugin = plugin;
+    private void refreshSlots() {
+        int version = counterRegistry.getVersion();
+        if (version == resolvedVersion) {
+            return;
+        }
+        
+        killSlots = resolveSlots("kills", EntityType.values());
+        collectSlots = resolveSlots("collect", Material.values());
+        breakSlots = resolveSlots("break", Material.values());
+        resolvedVersion = version;
+    }
+    
+    /**
+     * Look up the counter slot of every constant of an enum
+     * 
+     * @param conditionType The type of condition
+     * @param constants The enum constants, in ordinal order
+     * @return The tracked slots indexed by ordinal
+     */
+    private int[] resolveSlots(String conditionType, Enum<?>[] constants) {
+        int[] slots = new int[constants.length];
+        for (Enum<?> constant : constants) {
+            int slot = counterRegistry.getSlot(conditionType, constant.toString().toLowerCase());
+            slots[constant.ordinal()] = counterRegistry.isTracked(slot) ? slot : -1;
+        }
+        return slots;
     }
     
     /**
@@ -48,19 +83,19 @@ public class ProgressionListener implements Listener {
         }
         
         Player player = event.getEntity().getKiller();
-        String entityType = event.getEntityType().toString().toLowerCase(); // Use toString() for consistency
+        refreshSlots();
+        int slot = killSlots[event.getEntityType().ordinal()];
         
         // Record the kill
-        progressService.recordProgress(player, "kills", entityType, 1);
-        
-        // After recording progress, check for locked items
-        // This is important if killing a mob unlocked/locked an item
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                inventoryListener.dropLockedItems(player);
-            }
-        }.runTaskLater(plugin, 1L);
+        if (slot >= 0) {
+            progressAggregator.add(player, slot, 1);
+        } else if (!counterRegistry.isRecordingAll()) {
+            // No loaded condition counts this entity
+            return;
+        } else {
+            String entityType = event.getEntityType().toString().toLowerCase(); // Use toString() for consistency
+            progressAggregator.add(player, "kills", entityType, 1);
+        }
     }
     
     /**
@@ -73,30 +108,34 @@ public class ProgressionListener implements Listener {
         ItemStack item = event.getItem().getItemStack();
         
         // Check for custom items with ItemModel (1.21.5+)
-        String itemIdentifier;
         if (item.hasItemMeta() && item.getItemMeta().hasItemModel()) {
             // This is a custom item with a namespaced ID
-            itemIdentifier = item.getItemMeta().getItemModel().toString();
+            String itemIdentifier = item.getItemMeta().getItemModel().toString();
             // Convert to the format namespace:key by removing 'minecraft:' prefix if present
             if (itemIdentifier.startsWith("minecraft:")) {
                 itemIdentifier = itemIdentifier.substring(10);
             }
+            
+            if (!counterRegistry.isRecorded("collect", itemIdentifier.toLowerCase())) {
+                return;
+            }
+            
+            // Record the collection
+            progressAggregator.add(player, "collect", itemIdentifier, item.getAmount());
         } else {
-            // Regular vanilla item
-            itemIdentifier = item.getType().toString().toLowerCase();
-        }
-        
-        // Record the collection
-        progressService.recordProgress(player, "collect", itemIdentifier, item.getAmount());
-        
-        // After recording progress, check for locked items
-        // This is important if collecting an item unlocked/locked another item
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                inventoryListener.dropLockedItems(player);
+            // Regular vanilla item, recorded through its counter slot when a condition tracks it
+            refreshSlots();
+            int slot = collectSlots[item.getType().ordinal()];
+            
+            if (slot >= 0) {
+                progressAggregator.add(player, slot, item.getAmount());
+            } else if (!counterRegistry.isRecordingAll()) {
+                // No loaded condition counts this item
+                return;
+            } else {
+                progressAggregator.add(player, "collect", item.getType().toString().toLowerCase(), item.getAmount());
             }
-        }.runTaskLater(plugin, 1L);
+        }
     }
     
     /**
@@ -105,18 +144,18 @@ public class ProgressionListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockBreak(BlockBreakEvent event) {
         Player player = event.getPlayer();
-        String blockType = event.getBlock().getType().toString().toLowerCase(); // Use toString() for consistency
+        refreshSlots();
+        int slot = breakSlots[event.getBlock().getType().ordinal()];
         
         // Record the break
-        progressService.recordProgress(player, "break", blockType, 1);
-        
-        // After recording progress, check for locked items
-        // This is important if breaking a block unlocked/locked an item
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                inventoryListener.dropLockedItems(player);
-            }
-        }.runTaskLater(plugin, 1L);
+        if (slot >= 0) {
+            progressAggregator.add(player, slot, 1);
+        } else if (!counterRegistry.isRecordingAll()) {
+            // No loaded condition counts this block
+            return;
+        } else {
+            String blockType = event.getBlock().getType().toString().toLowerCase(); // Use toString() for consistency
+            progressAggregator.add(player, "break", blockType, 1);
+        }
     }
 } 
\ No newline at end of file
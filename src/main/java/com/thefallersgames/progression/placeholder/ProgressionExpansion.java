@@ -75,7 +75,7 @@ public class ProgressionExpansion extends PlaceholderExpansion {
             String conditionType = parts[1];
             String target = parts[2];
             String property = parts[3];
-
+            
             // Try to get the composite condition for this item
             ProgressCondition condition = null;
             Material material = null;
@@ -360,14 +360,13 @@ public class ProgressionExpansion extends PlaceholderExpansion {
     private int getItemProgress(Player player, ProgressCondition condition) {
         if (condition instanceof CompositeCondition) {
             CompositeCondition composite = (CompositeCondition) condition;
+            ProgressCondition source = composite.getProgressCondition();
             
-            // For composite conditions, find the non-prerequisite condition for progress
-            for (ProgressCondition subCondition : composite.getConditions()) {
-                if (!(subCondition instanceof PrerequisiteCondition)) {
-                    return getConditionProgress(player, subCondition);
-                }
+            // Partial modes count the sub-conditions that are met, matching their required amount
+            if (source == composite) {
+                return composite.getCurrentProgress(player);
             }
-            return 0;
+            return source == null ? 0 : getConditionProgress(player, source);
         }
         
         return getConditionProgress(player, condition);
@@ -1,6 +1,7 @@
 package com.thefallersgames.progression.service;
 
 import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
@@ -8,20 +9,35 @@ import org.bukkit.inventory.ItemStack;
 
 import com.thefallersgames.progression.api.adapter.PlaceholderAdapter;
 import com.thefallersgames.progression.api.condition.ProgressCondition;
+import com.thefallersgames.progression.api.event.ItemMilestoneEvent;
 import com.thefallersgames.progression.api.event.ItemUnlockEvent;
 import com.thefallersgames.progression.api.factory.ConditionFactory;
+import com.thefallersgames.progression.api.service.NotificationService;
+import com.thefallersgames.progression.api.service.ProgressDelta;
 import com.thefallersgames.progression.api.service.ProgressService;
 import com.thefallersgames.progression.condition.CollectCondition;
 import com.thefallersgames.progression.condition.BreakCondition;
 import com.thefallersgames.progression.condition.KillsCondition;
+import com.thefallersgames.progression.condition.PlaceholderCondition;
 import com.thefallersgames.progression.condition.CompositeCondition;
 import com.thefallersgames.progression.condition.PrerequisiteCondition;
+import com.thefallersgames.progression.data.CounterRegistry;
 import com.thefallersgames.progression.data.PlayerDataManager;
+import com.thefallersgames.progression.data.UnlockLedger;
 import com.thefallersgames.progression.util.ItemUtil;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Default implementation of the ProgressService.
@@ -32,8 +48,26 @@ public class DefaultProgressService implements ProgressService {
     private final PlayerDataManager dataManager;
     private final ConditionFactory conditionFactory;
     private final PlaceholderAdapter placeholderAdapter;
+    private final NotificationService notificationService;
     private final Map<String, ProgressCondition> itemConditions;
-    private final Map<String, String> itemMessages;
+    private final Map<String, MessageTemplate> itemMessages;
+    // Counter slot -> the sorted thresholds of every condition that tracks that counter
+    private ThresholdIndex thresholdIndex;
+    private List<Integer> milestones;
+    private String milestoneMessage;
+    // Unlock ledger layout: item ordinal -> item ID, and the stamp persisted with each unlock
+    private final List<String> itemOrder;
+    private final Map<String, Integer> itemOrdinals;
+    private final List<Integer> unlockStamps;
+    // Items whose condition can change without recorded progress, e.g. placeholders, so the ledger can't cache them
+    private final BitSet uncachedItems;
+    // Items on a prerequisite cycle, which can never be unlocked
+    private final Set<String> cycleItems;
+    private PrerequisiteGraph prerequisiteGraph;
+    private PlaceholderSampler placeholderSampler;
+    private List<String> placeholderItems;
+    private volatile ItemPrefilter itemPrefilter;
+    private volatile int ledgerGeneration;
     
     /**
      * Create a new DefaultProgressService
@@ -41,16 +75,30 @@ public class DefaultProgressService implements ProgressService {
      * @param dataManager The data manager for player progression
      * @param conditionFactory The factory for creating conditions
      * @param placeholderAdapter The adapter for PlaceholderAPI
+     * @param notificationService The service sending milestone messages to players
      */
     public DefaultProgressService(
             PlayerDataManager dataManager, 
             ConditionFactory conditionFactory,
-            PlaceholderAdapter placeholderAdapter) {
+            PlaceholderAdapter placeholderAdapter,
+            NotificationService notificationService) {
         this.dataManager = dataManager;
         this.conditionFactory = conditionFactory;
         this.placeholderAdapter = placeholderAdapter;
+        this.notificationService = notificationService;
         this.itemConditions = new HashMap<>();
         this.itemMessages = new HashMap<>();
+        this.thresholdIndex = new ThresholdIndex.Builder(Collections.<Integer>emptyList()).build();
+        this.milestones = Collections.emptyList();
+        this.milestoneMessage = "";
+        this.itemOrder = new ArrayList<>();
+        this.itemOrdinals = new HashMap<>();
+        this.unlockStamps = new ArrayList<>();
+        this.uncachedItems = new BitSet();
+        this.cycleItems = new HashSet<>();
+        this.prerequisiteGraph = PrerequisiteGraph.compile(Collections.<String, Set<String>>emptyMap());
+        this.placeholderItems = Collections.emptyList();
+        this.itemPrefilter = ItemPrefilter.of(Collections.<String>emptySet());
     }
     
     /**
@@ -61,11 +109,24 @@ public class DefaultProgressService implements ProgressService {
     public void loadItemConditions(ConfigurationSection config) {
         itemConditions.clear();
         itemMessages.clear();
+        itemOrder.clear();
+        itemOrdinals.clear();
+        unlockStamps.clear();
+        cycleItems.clear();
         
         if (config == null) {
+            prerequisiteGraph = PrerequisiteGraph.compile(Collections.<String, Set<String>>emptyMap());
+            thresholdIndex = new ThresholdIndex.Builder(milestones).build();
+            itemPrefilter = ItemPrefilter.of(itemConditions.keySet());
+            publishTrackedSlots();
+            indexUnlockLedger();
             return;
         }
         
+        Map<String, Integer> stamps = new HashMap<>();
+        Map<String, Set<String>> prerequisites = new LinkedHashMap<>();
+        Map<String, String> messages = new LinkedHashMap<>();
+        
         for (String itemId : config.getKeys(false)) {
             ConfigurationSection itemSection = config.getConfigurationSection(itemId);
             
@@ -100,34 +161,459 @@ public class DefaultProgressService implements ProgressService {
                 try {
                     ProgressCondition condition = conditionFactory.createCondition(conditionSection);
                     itemConditions.put(itemId.toLowerCase(), condition);
+                    stamps.put(itemId.toLowerCase(), stampOf(conditionSection));
+                    
+                    Set<String> required = new LinkedHashSet<>();
+                    collectPrerequisites(condition, required);
+                    prerequisites.put(itemId.toLowerCase(), required);
                 } catch (Exception e) {
                     Bukkit.getLogger().warning("Failed to load condition for item " + itemId + ": " + e.getMessage());
                 }
             }
             
-            itemMessages.put(itemId.toLowerCase(), message);
+            messages.put(itemId.toLowerCase(), message);
+        }
+        
+        // A prerequisite cycle can never be unlocked and would recurse forever, so its items stay locked
+        // without their conditions ever being evaluated
+        prerequisiteGraph = PrerequisiteGraph.compile(prerequisites);
+        for (List<String> cycle : prerequisiteGraph.getCycles()) {
+            Bukkit.getLogger().severe("Prerequisite cycle in locked-items: " + String.join(" requires ", cycle)
+                    + " requires " + cycle.get(0) + ". These items stay locked until the cycle is removed.");
+            cycleItems.addAll(cycle);
+        }
+        
+        // Parse the messages once the conditions are final, since their placeholders depend on them
+        for (Map.Entry<String, String> entry : messages.entrySet()) {
+            itemMessages.put(entry.getKey(), compileMessage(entry.getKey(), itemConditions.get(entry.getKey()), entry.getValue()));
+        }
+        
+        // Number the items in topological order, so prerequisites come before the items that require them
+        ThresholdIndex.Builder thresholds = new ThresholdIndex.Builder(milestones);
+        for (String itemId : prerequisiteGraph.getOrder()) {
+            indexThresholds(thresholds, itemOrder.size(), itemConditions.get(itemId));
+            itemOrdinals.put(itemId, itemOrder.size());
+            itemOrder.add(itemId);
+            unlockStamps.add(stamps.get(itemId));
+        }
+        thresholdIndex = thresholds.build();
+        itemPrefilter = ItemPrefilter.of(itemConditions.keySet());
+        
+        publishTrackedSlots();
+        indexUnlockLedger();
+    }
+    
+    /**
+     * Hand the counters used by the loaded conditions to the registry's tracking filter
+     */
+    private void publishTrackedSlots() {
+        BitSet tracked = new BitSet();
+        for (int slot = 0; slot < dataManager.getCounterRegistry().size(); slot++) {
+            if (thresholdIndex.hasThresholds(slot)) {
+                tracked.set(slot);
+            }
+        }
+        dataManager.getCounterRegistry().setTracked(tracked);
+    }
+    
+    /**
+     * Work out which items the unlock ledger may cache.
+     * Bumping the generation makes every ledger forget entries numbered under the previous configuration.
+     */
+    private void indexUnlockLedger() {
+        uncachedItems.clear();
+        List<String> sampled = new ArrayList<>();
+        
+        // Ordinals are topological, so an item's prerequisites are settled before the item itself
+        for (int ordinal = 0; ordinal < itemOrder.size(); ordinal++) {
+            ProgressCondition condition = itemConditions.get(itemOrder.get(ordinal));
+            if (!isCacheable(condition)) {
+                uncachedItems.set(ordinal);
+            }
+            if (readsPlaceholder(condition)) {
+                sampled.add(itemOrder.get(ordinal));
+            }
+        }
+        
+        placeholderItems = Collections.unmodifiableList(sampled);
+        ledgerGeneration++;
+    }
+    
+    /**
+     * Collect the IDs of the items a condition names as prerequisites
+     * 
+     * @param condition The condition (or sub-condition) to search
+     * @param into The set to add the item IDs to
+     */
+    private void collectPrerequisites(ProgressCondition condition, Set<String> into) {
+        if (condition instanceof CompositeCondition) {
+            for (ProgressCondition subCondition : ((CompositeCondition) condition).getConditions()) {
+                collectPrerequisites(subCondition, into);
+            }
+        } else if (condition instanceof PrerequisiteCondition) {
+            PrerequisiteCondition prerequisite = (PrerequisiteCondition) condition;
+            into.add(prerequisite.getPrerequisiteItemId());
+            
+            if (prerequisite.getAdditionalCondition() != null) {
+                collectPrerequisites(prerequisite.getAdditionalCondition(), into);
+            }
+        }
+    }
+    
+    /**
+     * Check if the unlock ledger may cache the result of a condition.
+     * Counters only change through recorded progress and admin commands, which both update the ledger;
+     * placeholder values and conditions registered by other plugins can change at any time.
+     * 
+     * @param condition The condition (or sub-condition) to check
+     * @return true if the condition's result only changes along with the player's counters
+     */
+    private boolean isCacheable(ProgressCondition condition) {
+        if (condition instanceof CompositeCondition) {
+            for (ProgressCondition subCondition : ((CompositeCondition) condition).getConditions()) {
+                if (!isCacheable(subCondition)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        if (condition instanceof PrerequisiteCondition) {
+            PrerequisiteCondition prerequisite = (PrerequisiteCondition) condition;
+            Integer required = itemOrdinals.get(prerequisite.getPrerequisiteItemId());
+            
+            if (required != null && uncachedItems.get(required)) {
+                return false;
+            }
+            return prerequisite.getAdditionalCondition() == null || isCacheable(prerequisite.getAdditionalCondition());
+        }
+        
+        return condition instanceof KillsCondition || condition instanceof CollectCondition || condition instanceof BreakCondition;
+    }
+    
+    /**
+     * Check if a condition reads a placeholder, whose value changes without any recorded progress
+     * 
+     * @param condition The condition (or sub-condition) to check
+     * @return true if the condition or one of its sub-conditions is a placeholder condition
+     */
+    private boolean readsPlaceholder(ProgressCondition condition) {
+        if (condition instanceof CompositeCondition) {
+            for (ProgressCondition subCondition : ((CompositeCondition) condition).getConditions()) {
+                if (readsPlaceholder(subCondition)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        if (condition instanceof PrerequisiteCondition) {
+            return readsPlaceholder(((PrerequisiteCondition) condition).getAdditionalCondition());
+        }
+        
+        return condition instanceof PlaceholderCondition;
+    }
+    
+    /**
+     * Get the items whose conditions read a placeholder, so they can be polled for unlocks
+     * 
+     * @return The item IDs, in topological order
+     */
+    public List<String> getPlaceholderItems() {
+        return placeholderItems;
+    }
+    
+    /**
+     * Set the sampler polling placeholder items, so it learns about unlocks it didn't announce itself
+     * 
+     * @param placeholderSampler The sampler, or null if placeholders aren't polled
+     */
+    public void setPlaceholderSampler(PlaceholderSampler placeholderSampler) {
+        this.placeholderSampler = placeholderSampler;
+    }
+    
+    /**
+     * Announce an unlock that wasn't caused by recorded progress, e.g. a placeholder value the sampler saw
+     * cross its required amount. Fires the unlock event and re-evaluates the items that require the item.
+     * Main thread only.
+     * 
+     * @param player The player
+     * @param itemId The unlocked item's ID
+     * @param conditionType The type of condition that was met
+     */
+    public void notifyUnlocked(Player player, String itemId, String conditionType) {
+        if (player != null && itemConditions.containsKey(itemId)) {
+            onItemUnlocked(player, itemId, conditionType, null);
         }
     }
     
+    /**
+     * Stamp a condition's configuration, so a persisted unlock can be trusted only while the condition is unchanged
+     * 
+     * @param conditionSection The condition's configuration
+     * @return A non-zero stamp; a locked item has no stamp stored
+     */
+    private static int stampOf(ConfigurationSection conditionSection) {
+        Map<String, Object> values = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : conditionSection.getValues(true).entrySet()) {
+            if (!(entry.getValue() instanceof ConfigurationSection)) {
+                values.put(entry.getKey(), entry.getValue());
+            }
+        }
+        
+        int stamp = values.toString().hashCode();
+        return stamp != 0 ? stamp : 1;
+    }
+    
+    /**
+     * Add the required amount of every counter an item's condition tracks to the threshold index
+     * 
+     * @param thresholds The index being built
+     * @param ordinal The item's ordinal
+     * @param condition The condition (or sub-condition) to index
+     */
+    private void indexThresholds(ThresholdIndex.Builder thresholds, int ordinal, ProgressCondition condition) {
+        if (condition instanceof CompositeCondition) {
+            for (ProgressCondition subCondition : ((CompositeCondition) condition).getConditions()) {
+                indexThresholds(thresholds, ordinal, subCondition);
+            }
+            return;
+        }
+        
+        if (condition instanceof PrerequisiteCondition) {
+            ProgressCondition additionalCondition = ((PrerequisiteCondition) condition).getAdditionalCondition();
+            if (additionalCondition != null) {
+                indexThresholds(thresholds, ordinal, additionalCondition);
+            }
+            return;
+        }
+        
+        int slot;
+        
+        if (condition instanceof KillsCondition) {
+            slot = ((KillsCondition) condition).getSlot();
+        } else if (condition instanceof CollectCondition) {
+            slot = ((CollectCondition) condition).getSlot();
+        } else if (condition instanceof BreakCondition) {
+            slot = ((BreakCondition) condition).getSlot();
+        } else {
+            // Prerequisites and placeholders are not driven by recorded progress
+            return;
+        }
+        
+        thresholds.add(slot, ordinal, condition.getRequiredProgress());
+    }
+    
+    /**
+     * Set the milestones at which players are told how far they are towards unlocking an item.
+     * Takes effect the next time item conditions are loaded.
+     * 
+     * @param milestones Percentages of the required progress, e.g. 25, 50 and 75
+     * @param milestoneMessage The message sent at each milestone, or an empty string to only fire the event
+     */
+    public void setMilestones(List<Integer> milestones, String milestoneMessage) {
+        this.milestones = new ArrayList<>(milestones);
+        this.milestoneMessage = milestoneMessage == null ? "" : milestoneMessage;
+    }
+    
     @Override
     public boolean isItemLocked(Player player, ItemStack item) {
-        ProgressCondition condition = getItemCondition(item);
+        String itemId = resolveItemId(item);
+        return itemId != null && isItemLocked(player, itemId);
+    }
+    
+    @Override
+    public boolean isItemLocked(Player player, String itemId) {
+        Integer ordinal = itemOrdinals.get(itemId);
         
-        if (condition == null) {
-            return false;
+        if (ordinal == null) {
+            return cycleItems.contains(itemId);
         }
         
-        return !meetsCondition(player, condition);
+        return player == null || !isUnlocked(player, ordinal);
+    }
+    
+    /**
+     * Check if a player has unlocked an item, answering from their unlock ledger where possible
+     * 
+     * @param player The player
+     * @param ordinal The item's ordinal
+     * @return true if the item's condition is met
+     */
+    private boolean isUnlocked(Player player, int ordinal) {
+        String itemId = itemOrder.get(ordinal);
+        ProgressCondition condition = itemConditions.get(itemId);
+        UnlockLedger ledger = dataManager.getUnlockLedger(player.getUniqueId());
+        
+        if (ledger == null || uncachedItems.get(ordinal)) {
+            return meetsCondition(player, condition);
+        }
+        
+        int generation = ledgerGeneration;
+        int state = ledger.get(generation, ordinal);
+        if (state != UnlockLedger.UNKNOWN) {
+            return state == UnlockLedger.UNLOCKED;
+        }
+        
+        // A persisted unlock holds as long as the item's condition hasn't changed since
+        int persistedStamp = dataManager.getUnlockStamp(player.getUniqueId(), itemId);
+        if (persistedStamp == unlockStamps.get(ordinal) || meetsCondition(player, condition)) {
+            markUnlocked(player, ledger, generation, ordinal);
+            return true;
+        }
+        
+        // The evaluation thread may have unlocked the item since its counters were read here
+        if (ledger.set(generation, ordinal, UnlockLedger.LOCKED) == UnlockLedger.UNLOCKED) {
+            return true;
+        }
+        if (persistedStamp != 0) {
+            dataManager.setUnlockStamp(player.getUniqueId(), itemId, 0);
+        }
+        return false;
+    }
+    
+    /**
+     * Record an unlock in the player's ledger and persist it
+     * 
+     * @param player The player
+     * @param ledger The player's unlock ledger
+     * @param generation The ledger generation the ordinal belongs to
+     * @param ordinal The item's ordinal
+     */
+    private void markUnlocked(Player player, UnlockLedger ledger, int generation, int ordinal) {
+        String itemId = itemOrder.get(ordinal);
+        int stamp = unlockStamps.get(ordinal);
+        
+        ledger.set(generation, ordinal, UnlockLedger.UNLOCKED);
+        if (dataManager.getUnlockStamp(player.getUniqueId(), itemId) != stamp) {
+            dataManager.setUnlockStamp(player.getUniqueId(), itemId, stamp);
+        }
+    }
+    
+    /**
+     * Record that progress just unlocked an item, tell listeners, and re-evaluate the items that require it.
+     * Only direct dependents are checked; their own unlocks carry the cascade further down the graph.
+     * 
+     * @param player The player
+     * @param itemId The unlocked item's ID
+     * @param conditionType The type of progress that unlocked it
+     * @param deferred Collects the work that must run on the main thread, or null to run it right away
+     */
+    private void onItemUnlocked(Player player, String itemId, String conditionType, List<Runnable> deferred) {
+        UnlockLedger ledger = dataManager.getUnlockLedger(player.getUniqueId());
+        int generation = ledgerGeneration;
+        Integer ordinal = itemOrdinals.get(itemId);
+        
+        if (ledger != null && ordinal != null && !uncachedItems.get(ordinal)) {
+            markUnlocked(player, ledger, generation, ordinal);
+        }
+        
+        dispatch(deferred, () -> announceUnlock(player, itemId, conditionType));
+        
+        for (String dependentId : prerequisiteGraph.getDependents(itemId)) {
+            int dependent = itemOrdinals.get(dependentId);
+            boolean cached = ledger != null && !uncachedItems.get(dependent);
+            
+            if (cached && wasUnlocked(player, ledger, generation, dependent)) {
+                continue;
+            }
+            
+            if (deferred != null && uncachedItems.get(dependent)) {
+                // Placeholders and custom conditions may only be evaluated on the main thread
+                deferred.add(() -> unlockIfMet(player, dependentId, "prerequisite"));
+            } else if (meetsCondition(player, itemConditions.get(dependentId))) {
+                onItemUnlocked(player, dependentId, "prerequisite", deferred);
+            } else if (cached) {
+                ledger.set(generation, dependent, UnlockLedger.LOCKED);
+            }
+        }
+    }
+    
+    /**
+     * Check if an item was already unlocked before the current update, without evaluating its condition
+     * 
+     * @param player The player
+     * @param ledger The player's unlock ledger
+     * @param generation The ledger generation the ordinal belongs to
+     * @param ordinal The item's ordinal
+     * @return true if the ledger or a persisted unlock says the item is unlocked
+     */
+    private boolean wasUnlocked(Player player, UnlockLedger ledger, int generation, int ordinal) {
+        int state = ledger.get(generation, ordinal);
+        if (state != UnlockLedger.UNKNOWN) {
+            return state == UnlockLedger.UNLOCKED;
+        }
+        
+        if (dataManager.getUnlockStamp(player.getUniqueId(), itemOrder.get(ordinal)) == unlockStamps.get(ordinal)) {
+            ledger.set(generation, ordinal, UnlockLedger.UNLOCKED);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Fire an ItemUnlockEvent and tell the placeholder sampler the item is unlocked. Main thread only.
+     * 
+     * @param player The player
+     * @param itemId The unlocked item's ID
+     * @param conditionType The type of progress that unlocked it
+     */
+    private void announceUnlock(Player player, String itemId, String conditionType) {
+        // The sampler would otherwise announce a placeholder item again on its next sample
+        if (placeholderSampler != null) {
+            placeholderSampler.markUnlocked(player, itemId);
+        }
+        
+        ItemStack item = createEventItem(itemId);
+        if (item != null) {
+            ItemUnlockEvent event = new ItemUnlockEvent(player, item, conditionType);
+            Bukkit.getPluginManager().callEvent(event);
+        }
+    }
+    
+    /**
+     * Create the item stack passed to unlock and milestone events
+     * 
+     * @param itemId The item's ID
+     * @return The item, or null if the ID is not a known material
+     */
+    private ItemStack createEventItem(String itemId) {
+        try {
+            if (itemId.contains(":")) {
+                // This is a custom item with a namespaced ID
+                // Since we can't directly create custom items here,
+                // we'll create a placeholder item with the material PAPER
+                // Ideally in a real implementation, you would create the actual custom item
+                return new ItemStack(Material.PAPER);
+            }
+            
+            // Regular vanilla item
+            return new ItemStack(Material.valueOf(itemId.toUpperCase()));
+        } catch (Exception e) {
+            Bukkit.getLogger().warning("Failed to create unlock event for item: " + itemId);
+            return null;
+        }
     }
     
     @Override
     public ProgressCondition getItemCondition(ItemStack item) {
-        if (item == null) {
+        String itemId = resolveItemId(item);
+        return itemId == null ? null : itemConditions.get(itemId);
+    }
+    
+    @Override
+    public ProgressCondition getItemCondition(String itemId) {
+        return itemId == null ? null : itemConditions.get(itemId);
+    }
+    
+    @Override
+    public String resolveItemId(ItemStack item) {
+        // Most items are ruled out without resolving their ID
+        if (item == null || !itemPrefilter.mayBeLocked(item)) {
             return null;
         }
         
-        String itemId = ItemUtil.getItemId(item);
-        return itemConditions.get(itemId);
+        return ItemUtil.getItemId(item);
     }
     
     @Override
@@ -136,18 +622,21 @@ public class DefaultProgressService implements ProgressService {
             return "This item is not available.";
         }
         
-        String itemId = ItemUtil.getItemId(item);
-        String message = itemMessages.get(itemId);
+        return getItemLockMessage(player, ItemUtil.getItemId(item));
+    }
+    
+    @Override
+    public String getItemLockMessage(Player player, String itemId) {
+        MessageTemplate template = itemMessages.get(itemId);
         
-        if (message == null) {
+        if (template == null) {
             return "This item is not available yet.";
         }
         
-        // Process our own item-based placeholders
-        message = processItemPlaceholders(player, message, itemId);
+        String message = template.render(player);
         
-        // Use PlaceholderAPI for any remaining placeholders
-        if (placeholderAdapter != null && placeholderAdapter.isAvailable()) {
+        // Only hand the message to PlaceholderAPI if it has placeholders the template left alone
+        if (template.hasForeignPlaceholders() && placeholderAdapter != null && placeholderAdapter.isAvailable()) {
             message = placeholderAdapter.setPlaceholders(player, message);
         }
         
@@ -155,118 +644,85 @@ public class DefaultProgressService implements ProgressService {
     }
     
     /**
-     * Process custom item-based placeholders in a message
+     * Parse an item's lock message, resolving which of its placeholders stand for what
      * 
-     * @param player The player
-     * @param message The message with placeholders
      * @param itemId The item ID
-     * @return The message with item placeholders replaced
+     * @param condition The item's condition, or null if it has none
+     * @param message The configured message
+     * @return The template
      */
-    private String processItemPlaceholders(Player player, String message, String itemId) {
-        if (message == null || itemId == null) {
-            return message;
-        }
-        
-        ProgressCondition condition = itemConditions.get(itemId.toLowerCase());
-        if (condition == null) {
-            return message;
-        }
-        
-        // Replace basic placeholders with prog_ prefix for PlaceholderAPI
-        message = message.replace("%prog_" + itemId + "_progress%", String.valueOf(getItemProgress(player, condition)));
-        message = message.replace("%prog_" + itemId + "_amount%", String.valueOf(condition.getRequiredProgress()));
-        message = message.replace("%prog_" + itemId + "_type%", getConditionType(condition));
-        
-        int progress = getItemProgress(player, condition);
-        int required = condition.getRequiredProgress();
-        int percentage = required <= 0 ? 100 : Math.min(100, (progress * 100) / required);
-        message = message.replace("%prog_" + itemId + "_percentage%", String.valueOf(percentage));
+    static MessageTemplate compileMessage(String itemId, ProgressCondition condition, String message) {
+        Map<String, MessageTemplate.Slot> tokens = new HashMap<>();
         
-        message = message.replace("%prog_" + itemId + "_unlocked%", meetsCondition(player, condition) ? "yes" : "no");
-        message = message.replace("%prog_" + itemId + "_locked%", meetsCondition(player, condition) ? "no" : "yes");
-        
-        // Handle specific condition types
-        if (condition instanceof KillsCondition) {
-            KillsCondition killsCondition = (KillsCondition) condition;
-            message = message.replace("%prog_" + itemId + "_entity%", killsCondition.getEntityType().toString().toLowerCase());
-        } else if (condition instanceof CompositeCondition) {
-            CompositeCondition composite = (CompositeCondition) condition;
+        if (condition != null) {
+            String prefix = "%prog_" + itemId + "_";
+            int required = condition.getRequiredProgress();
+            ProgressCondition progressSource = getProgressSource(condition);
             
-            // Process composite condition specific placeholders
-            for (ProgressCondition subCondition : composite.getConditions()) {
-                String subType = getConditionType(subCondition);
-                String target = "";
-                
-                if (subCondition instanceof KillsCondition) {
-                    KillsCondition killsCondition = (KillsCondition) subCondition;
-                    target = killsCondition.getEntityType().toString().toLowerCase();
-                    message = message.replace("%prog_" + itemId + "_" + subType + "_" + target + "_progress%", 
-                            String.valueOf(getConditionProgress(player, subCondition)));
-                    message = message.replace("%prog_" + itemId + "_" + subType + "_" + target + "_amount%", 
-                            String.valueOf(subCondition.getRequiredProgress()));
-                } else if (subCondition instanceof CollectCondition) {
-                    CollectCondition collectCondition = (CollectCondition) subCondition;
-                    target = collectCondition.getMaterialType().toString().toLowerCase();
-                    message = message.replace("%prog_" + itemId + "_" + subType + "_" + target + "_progress%", 
-                            String.valueOf(getConditionProgress(player, subCondition)));
-                    message = message.replace("%prog_" + itemId + "_" + subType + "_" + target + "_amount%", 
-                            String.valueOf(subCondition.getRequiredProgress()));
-                } else if (subCondition instanceof BreakCondition) {
-                    BreakCondition breakCondition = (BreakCondition) subCondition;
-                    target = breakCondition.getMaterialType().toString().toLowerCase();
-                    message = message.replace("%prog_" + itemId + "_" + subType + "_" + target + "_progress%", 
-                            String.valueOf(getConditionProgress(player, subCondition)));
-                    message = message.replace("%prog_" + itemId + "_" + subType + "_" + target + "_amount%", 
-                            String.valueOf(subCondition.getRequiredProgress()));
-                } else if (subCondition instanceof PrerequisiteCondition) {
-                    PrerequisiteCondition prereqCondition = (PrerequisiteCondition) subCondition;
-                    target = prereqCondition.getPrerequisiteItem().toString().toLowerCase();
-                    message = message.replace("%prog_" + itemId + "_" + subType + "_" + target + "_progress%", 
-                            meetsCondition(player, subCondition) ? "1" : "0");
-                    message = message.replace("%prog_" + itemId + "_" + subType + "_" + target + "_amount%", "1");
-                }
-            }
+            // Basic placeholders with prog_ prefix for PlaceholderAPI
+            tokens.put(prefix + "progress%", progressSource == null
+                    ? MessageTemplate.Slot.text("0") : MessageTemplate.Slot.progress(progressSource));
+            tokens.put(prefix + "amount%", MessageTemplate.Slot.text(String.valueOf(required)));
+            tokens.put(prefix + "type%", MessageTemplate.Slot.text(getConditionType(condition)));
+            tokens.put(prefix + "percentage%", progressSource == null
+                    ? MessageTemplate.Slot.text(String.valueOf(MessageTemplate.percentage(0, required)))
+                    : MessageTemplate.Slot.percentage(progressSource, required));
+            tokens.put(prefix + "unlocked%", MessageTemplate.Slot.met(condition, "yes", "no"));
+            tokens.put(prefix + "locked%", MessageTemplate.Slot.met(condition, "no", "yes"));
             
-            // Fallbacks for simple placeholders
-            for (ProgressCondition subCondition : composite.getConditions()) {
-                if (subCondition instanceof KillsCondition) {
-                    KillsCondition killsCondition = (KillsCondition) subCondition;
-                    message = message.replace("%prog_" + itemId + "_entity%", killsCondition.getEntityType().toString().toLowerCase());
-                    break;
-                }
+            // Handle specific condition types
+            if (condition instanceof KillsCondition) {
+                tokens.put(prefix + "entity%", MessageTemplate.Slot.text(
+                        ((KillsCondition) condition).getEntityType().toString().toLowerCase()));
+            } else if (condition instanceof CollectCondition) {
+                tokens.put(prefix + "material%", MessageTemplate.Slot.text(((CollectCondition) condition).getMaterialName()));
+            } else if (condition instanceof BreakCondition) {
+                tokens.put(prefix + "material%", MessageTemplate.Slot.text(
+                        ((BreakCondition) condition).getMaterialType().toString().toLowerCase()));
+            } else if (condition instanceof CompositeCondition) {
+                compileCompositeTokens(prefix, (CompositeCondition) condition, tokens);
             }
         }
         
-        if (condition instanceof CollectCondition) {
-            CollectCondition collectCondition = (CollectCondition) condition;
-            if (collectCondition.isCustomItem()) {
-                message = message.replace("%prog_" + itemId + "_material%", collectCondition.getMaterialName());
-            } else {
-                message = message.replace("%prog_" + itemId + "_material%", collectCondition.getMaterialType().toString().toLowerCase());
-            }
-        } else if (condition instanceof BreakCondition) {
-            BreakCondition breakCondition = (BreakCondition) condition;
-            message = message.replace("%prog_" + itemId + "_material%", breakCondition.getMaterialType().toString().toLowerCase());
-        } else if (condition instanceof CompositeCondition) {
-            CompositeCondition composite = (CompositeCondition) condition;
-            for (ProgressCondition subCondition : composite.getConditions()) {
-                if (subCondition instanceof CollectCondition) {
-                    CollectCondition collectCondition = (CollectCondition) subCondition;
-                    if (collectCondition.isCustomItem()) {
-                        message = message.replace("%prog_" + itemId + "_material%", collectCondition.getMaterialName());
-                    } else {
-                        message = message.replace("%prog_" + itemId + "_material%", collectCondition.getMaterialType().toString().toLowerCase());
-                    }
-                    break;
-                } else if (subCondition instanceof BreakCondition) {
-                    BreakCondition breakCondition = (BreakCondition) subCondition;
-                    message = message.replace("%prog_" + itemId + "_material%", breakCondition.getMaterialType().toString().toLowerCase());
-                    break;
-                }
+        return MessageTemplate.compile(message, tokens);
+    }
+    
+    /**
+     * Add the placeholders for the sub-conditions of a composite condition.
+     * Where several sub-conditions map to the same placeholder, the first one wins.
+     * 
+     * @param prefix The item's placeholder prefix
+     * @param composite The composite condition
+     * @param tokens The placeholders to add to
+     */
+    private static void compileCompositeTokens(String prefix, CompositeCondition composite, Map<String, MessageTemplate.Slot> tokens) {
+        for (ProgressCondition subCondition : composite.getConditions()) {
+            String subPrefix = prefix + getConditionType(subCondition) + "_";
+            
+            if (subCondition instanceof KillsCondition) {
+                String entity = ((KillsCondition) subCondition).getEntityType().toString().toLowerCase();
+                tokens.putIfAbsent(subPrefix + entity + "_progress%", MessageTemplate.Slot.progress(subCondition));
+                tokens.putIfAbsent(subPrefix + entity + "_amount%",
+                        MessageTemplate.Slot.text(String.valueOf(subCondition.getRequiredProgress())));
+                tokens.putIfAbsent(prefix + "entity%", MessageTemplate.Slot.text(entity));
+            } else if (subCondition instanceof CollectCondition) {
+                String material = ((CollectCondition) subCondition).getMaterialName();
+                tokens.putIfAbsent(subPrefix + material + "_progress%", MessageTemplate.Slot.progress(subCondition));
+                tokens.putIfAbsent(subPrefix + material + "_amount%",
+                        MessageTemplate.Slot.text(String.valueOf(subCondition.getRequiredProgress())));
+                tokens.putIfAbsent(prefix + "material%", MessageTemplate.Slot.text(material));
+            } else if (subCondition instanceof BreakCondition) {
+                String material = ((BreakCondition) subCondition).getMaterialType().toString().toLowerCase();
+                tokens.putIfAbsent(subPrefix + material + "_progress%", MessageTemplate.Slot.progress(subCondition));
+                tokens.putIfAbsent(subPrefix + material + "_amount%",
+                        MessageTemplate.Slot.text(String.valueOf(subCondition.getRequiredProgress())));
+                tokens.putIfAbsent(prefix + "material%", MessageTemplate.Slot.text(material));
+            } else if (subCondition instanceof PrerequisiteCondition) {
+                String item = ((PrerequisiteCondition) subCondition).getPrerequisiteItemId();
+                tokens.putIfAbsent(subPrefix + item + "_progress%", MessageTemplate.Slot.met(subCondition, "1", "0"));
+                tokens.putIfAbsent(subPrefix + item + "_amount%", MessageTemplate.Slot.text("1"));
             }
         }
-        
-        return message;
     }
     
     /**
@@ -275,7 +731,7 @@ public class DefaultProgressService implements ProgressService {
      * @param condition The condition
      * @return The condition type
      */
-    private String getConditionType(ProgressCondition condition) {
+    private static String getConditionType(ProgressCondition condition) {
         if (condition instanceof KillsCondition) return "kills";
         if (condition instanceof CollectCondition) return "collect";
         if (condition instanceof BreakCondition) return "break";
@@ -295,146 +751,258 @@ public class DefaultProgressService implements ProgressService {
     }
     
     /**
-     * Get the progress for a specific item's condition
+     * Get the condition whose progress stands for an item's progress
      * 
-     * @param player The player
-     * @param condition The condition
-     * @return The progress value
+     * @param condition The item's condition
+     * @return The condition to read progress from, or null if the item has no progress to show
      */
-    private int getItemProgress(Player player, ProgressCondition condition) {
+    private static ProgressCondition getProgressSource(ProgressCondition condition) {
         if (condition instanceof CompositeCondition) {
-            CompositeCondition composite = (CompositeCondition) condition;
-            
-            // For composite conditions, find the non-prerequisite condition for progress
-            for (ProgressCondition subCondition : composite.getConditions()) {
-                if (!(subCondition instanceof com.thefallersgames.progression.condition.PrerequisiteCondition)) {
-                    return getConditionProgress(player, subCondition);
-                }
-            }
-            return 0;
+            return ((CompositeCondition) condition).getProgressCondition();
+        }
+        
+        return condition;
+    }
+    
+    @Override
+    public void recordProgress(Player player, String conditionType, String key, int amount) {
+        if (player == null || conditionType == null || key == null) {
+            return;
+        }
+        
+        // Counters no loaded condition uses are dropped unless every counter is recorded
+        CounterRegistry counterRegistry = dataManager.getCounterRegistry();
+        if (!counterRegistry.isRecorded(conditionType.toLowerCase(), key.toLowerCase())) {
+            return;
+        }
+        
+        // Counters with a slot go through it; the rest can't unlock anything
+        int slot = counterRegistry.getSlot(conditionType.toLowerCase(), key.toLowerCase());
+        if (slot >= 0) {
+            recordProgress(player, slot, amount);
+            return;
         }
         
-        return getConditionProgress(player, condition);
+        dataManager.addUnslottedProgress(player.getUniqueId(), conditionType.toLowerCase(), key.toLowerCase(), amount);
     }
     
     /**
-     * Get the progress for a specific condition
+     * Record progress for a player on a counter that has a slot in the counter registry
      * 
-     * @param player The player
-     * @param condition The condition
-     * @return The progress value
+     * @param player The player making progress
+     * @param slot The counter's slot
+     * @param amount The amount of progress to add
      */
-    private int getConditionProgress(Player player, ProgressCondition condition) {
-        if (condition instanceof KillsCondition) {
-            KillsCondition killsCondition = (KillsCondition) condition;
-            return dataManager.getProgress(player.getUniqueId(), "kills", killsCondition.getEntityName());
+    private void recordProgress(Player player, int slot, int amount) {
+        CounterRegistry counterRegistry = dataManager.getCounterRegistry();
+        if (!counterRegistry.isTracked(slot) && !counterRegistry.isRecordingAll()) {
+            return;
         }
         
-        if (condition instanceof CollectCondition) {
-            CollectCondition collectCondition = (CollectCondition) condition;
-            return dataManager.getProgress(player.getUniqueId(), "collect", collectCondition.getMaterialName());
+        BitSet candidates = new BitSet();
+        applyProgress(player, slot, amount, candidates, null);
+        unlockCandidates(player, candidates, counterRegistry.getType(slot), null, null);
+    }
+    
+    @Override
+    public void recordProgress(Player player, Collection<ProgressDelta> deltas) {
+        recordProgress(player, deltas, null);
+    }
+    
+    /**
+     * Record several progress updates for a player, as by recordProgress(Player, Collection), off the main thread.
+     * Counters are updated and unlocks of items whose conditions only depend on counters are worked out right
+     * away; events, messages and conditions that must be evaluated on the main thread are collected instead.
+     * Counters are updated atomically, so this may run alongside progress recorded on the main thread,
+     * but only from one thread at a time and never while item conditions are being loaded.
+     * 
+     * @param player The player making progress
+     * @param deltas The progress updates
+     * @param deferred Collects the work to run on the main thread afterwards, or null to run it right away
+     */
+    public void recordProgress(Player player, Collection<ProgressDelta> deltas, List<Runnable> deferred) {
+        if (player == null || deltas == null || deltas.isEmpty()) {
+            return;
         }
         
-        if (condition instanceof BreakCondition) {
-            BreakCondition breakCondition = (BreakCondition) condition;
-            return dataManager.getProgress(player.getUniqueId(), "break", breakCondition.getMaterialName());
+        // Add up the updates per counter, so each counter is written and its thresholds walked once
+        CounterRegistry counterRegistry = dataManager.getCounterRegistry();
+        Map<Integer, Integer> slotAmounts = new LinkedHashMap<>();
+        
+        for (ProgressDelta delta : deltas) {
+            if (delta == null || delta.getConditionType() == null || delta.getKey() == null) {
+                continue;
+            }
+            
+            String conditionType = delta.getConditionType().toLowerCase();
+            String key = delta.getKey().toLowerCase();
+            if (!counterRegistry.isRecorded(conditionType, key)) {
+                continue;
+            }
+            
+            int slot = counterRegistry.getSlot(conditionType, key);
+            if (slot >= 0) {
+                slotAmounts.merge(slot, delta.getAmount(), Integer::sum);
+            } else {
+                dataManager.addUnslottedProgress(player.getUniqueId(), conditionType, key, delta.getAmount());
+            }
         }
         
-        if (condition instanceof com.thefallersgames.progression.condition.PlaceholderCondition) {
-            com.thefallersgames.progression.condition.PlaceholderCondition placeholderCondition = 
-                (com.thefallersgames.progression.condition.PlaceholderCondition) condition;
-            return dataManager.getProgress(player.getUniqueId(), "placeholder", placeholderCondition.getPlaceholder());
+        // Remember which kind of progress reached each item first, for its unlock event
+        BitSet candidates = new BitSet();
+        Map<Integer, String> causes = new HashMap<>();
+        
+        for (Map.Entry<Integer, Integer> entry : slotAmounts.entrySet()) {
+            int slot = entry.getKey();
+            BitSet reached = new BitSet();
+            applyProgress(player, slot, entry.getValue(), reached, deferred);
+            
+            reached.andNot(candidates);
+            for (int ordinal = reached.nextSetBit(0); ordinal >= 0; ordinal = reached.nextSetBit(ordinal + 1)) {
+                causes.put(ordinal, counterRegistry.getType(slot));
+            }
+            candidates.or(reached);
         }
         
-        return 0;
+        unlockCandidates(player, candidates, null, causes, deferred);
     }
     
     @Override
-    public void recordProgress(Player player, String conditionType, String key, int amount) {
-        if (player == null || conditionType == null || key == null) {
+    public void recordProgress(Map<Player, ? extends Collection<ProgressDelta>> deltas) {
+        if (deltas == null) {
             return;
         }
         
+        for (Map.Entry<Player, ? extends Collection<ProgressDelta>> entry : deltas.entrySet()) {
+            recordProgress(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    /**
+     * Add progress to a counter and visit the thresholds between its old and new value, in ascending order.
+     * Milestones are announced right away; items whose required amount was reached are collected for
+     * unlockCandidates, which checks each of them once.
+     * 
+     * @param player The player making progress
+     * @param slot The counter's slot
+     * @param amount The amount of progress to add
+     * @param candidates Receives the ordinals of the items whose required amount was reached
+     * @param deferred Collects the work that must run on the main thread, or null to run it right away
+     */
+    private void applyProgress(Player player, int slot, int amount, BitSet candidates, List<Runnable> deferred) {
         // Always record progress - removed prerequisite checking here as it was blocking collection
-        int newValue = dataManager.addProgress(player.getUniqueId(), conditionType.toLowerCase(), key.toLowerCase(), amount);
+        int newValue = dataManager.addProgress(player.getUniqueId(), slot, amount);
+        int oldValue = newValue - amount;
         
-        // Check for newly unlocked items
-        for (String itemId : itemConditions.keySet()) {
-            ProgressCondition condition = itemConditions.get(itemId);
+        for (int i = thresholdIndex.firstAbove(slot, oldValue); i < thresholdIndex.size(slot); i++) {
+            if (thresholdIndex.getValue(slot, i) > newValue) {
+                break;
+            }
             
-            // For composite conditions, we will check prerequisites during the meetsCondition call
-            // Here we just check if the numerical progress requirement is met
-            boolean progressMet = false;
-            int requiredValue = condition.getRequiredProgress();
+            int ordinal = thresholdIndex.getItem(slot, i);
             
-            if (condition instanceof CompositeCondition) {
-                // For composite conditions, we need to check if the specific progress type matches
-                CompositeCondition composite = (CompositeCondition) condition;
-                for (ProgressCondition subCondition : composite.getConditions()) {
-                    if (!(subCondition instanceof PrerequisiteCondition)) {
-                        // Found a non-prerequisite condition (progress-tracking condition)
-                        if (matchesProgressType(subCondition, conditionType, key) && 
-                            getConditionProgress(player, subCondition) >= subCondition.getRequiredProgress() &&
-                            getConditionProgress(player, subCondition) - amount < subCondition.getRequiredProgress()) {
-                            // This progress update caused this specific subcondition to be fulfilled
-                            progressMet = true;
-                            break;
-                        }
+            if (thresholdIndex.getPercentage(slot, i) != ThresholdIndex.REQUIREMENT) {
+                String itemId = itemOrder.get(ordinal);
+                String conditionType = dataManager.getCounterRegistry().getType(slot);
+                int percentage = thresholdIndex.getPercentage(slot, i);
+                int required = thresholdIndex.getRequired(slot, i);
+                
+                dispatch(deferred, () -> {
+                    if (isItemLocked(player, itemId)) {
+                        onMilestone(player, itemId, conditionType, percentage, newValue, required);
                     }
-                }
-            } else if (matchesProgressType(condition, conditionType, key) && 
-                      newValue >= requiredValue && (newValue - amount) < requiredValue) {
-                progressMet = true;
+                });
+                continue;
             }
             
-            // Only fire unlock event if progress requirement is met AND condition is fully met
-            // (which will include checking prerequisites)
-            if (progressMet && meetsCondition(player, condition)) {
-                try {
-                    // Create an unlock event
-                    ItemStack item;
-                    if (itemId.contains(":")) {
-                        // This is a custom item with a namespaced ID
-                        // Since we can't directly create custom items here,
-                        // we'll create a placeholder item with the material PAPER
-                        item = new ItemStack(Material.PAPER);
-                        // Ideally in a real implementation, you would create the actual custom item
-                    } else {
-                        // Regular vanilla item
-                        item = new ItemStack(Material.valueOf(itemId.toUpperCase()));
-                    }
-                    ItemUnlockEvent event = new ItemUnlockEvent(player, item, conditionType);
-                    Bukkit.getPluginManager().callEvent(event);
-                } catch (Exception e) {
-                    Bukkit.getLogger().warning("Failed to create unlock event for item: " + itemId);
-                }
+            // A condition may require several amounts of the same counter; the bit set checks the item once
+            candidates.set(ordinal);
+        }
+    }
+    
+    /**
+     * Check the items whose required amount was just reached, in topological order, and unlock those
+     * whose condition is now fully met (which will include checking prerequisites)
+     * 
+     * @param player The player
+     * @param candidates The ordinals of the items to check
+     * @param conditionType The type of progress that reached every candidate, or null to look it up in causes
+     * @param causes The type of progress that reached each candidate, if conditionType is null
+     * @param deferred Collects the work that must run on the main thread, or null to run it right away
+     */
+    private void unlockCandidates(Player player, BitSet candidates, String conditionType, Map<Integer, String> causes,
+            List<Runnable> deferred) {
+        UnlockLedger ledger = dataManager.getUnlockLedger(player.getUniqueId());
+        int generation = ledgerGeneration;
+        
+        for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+            // Unlocked before, or by the cascade from an earlier candidate
+            if (ledger != null && !uncachedItems.get(ordinal) && wasUnlocked(player, ledger, generation, ordinal)) {
+                continue;
+            }
+            
+            String itemId = itemOrder.get(ordinal);
+            String cause = conditionType != null ? conditionType : causes.get(ordinal);
+            
+            if (deferred != null && uncachedItems.get(ordinal)) {
+                // Placeholders and custom conditions may only be evaluated on the main thread
+                deferred.add(() -> unlockIfMet(player, itemId, cause));
+            } else if (meetsCondition(player, itemConditions.get(itemId))) {
+                onItemUnlocked(player, itemId, cause, deferred);
             }
         }
     }
     
     /**
-     * Check if a condition matches the given progress type and key
+     * Unlock an item if its condition is met, for checks deferred to the main thread
      * 
-     * @param condition The condition to check
-     * @param conditionType The progress type (e.g., "collect", "break", "kills")
-     * @param key The progress key (e.g., "grass_block", "zombie")
-     * @return true if the condition is affected by this progress type and key
+     * @param player The player
+     * @param itemId The item's ID
+     * @param conditionType The type of progress that reached the item
      */
-    private boolean matchesProgressType(ProgressCondition condition, String conditionType, String key) {
-        if (condition instanceof CollectCondition) {
-            CollectCondition collectCondition = (CollectCondition) condition;
-            return conditionType.equals("collect") && 
-                   key.equalsIgnoreCase(collectCondition.getMaterialName());
-        } else if (condition instanceof KillsCondition) {
-            KillsCondition killsCondition = (KillsCondition) condition;
-            return conditionType.equals("kills") && 
-                   key.equalsIgnoreCase(killsCondition.getEntityName());
-        } else if (condition instanceof BreakCondition) {
-            BreakCondition breakCondition = (BreakCondition) condition;
-            return conditionType.equals("break") && 
-                   key.equalsIgnoreCase(breakCondition.getMaterialName());
+    private void unlockIfMet(Player player, String itemId, String conditionType) {
+        if (itemConditions.containsKey(itemId) && meetsCondition(player, itemConditions.get(itemId))) {
+            onItemUnlocked(player, itemId, conditionType, null);
+        }
+    }
+    
+    /**
+     * Run work that must happen on the main thread, or collect it if the caller is off the main thread
+     * 
+     * @param deferred Collects the work, or null to run it right away
+     * @param action The work
+     */
+    private static void dispatch(List<Runnable> deferred, Runnable action) {
+        if (deferred == null) {
+            action.run();
+        } else {
+            deferred.add(action);
+        }
+    }
+    
+    /**
+     * Tell a player, and listeners, that their progress towards an item passed a milestone
+     * 
+     * @param player The player
+     * @param itemId The locked item's ID
+     * @param conditionType The type of progress that was made
+     * @param percentage The milestone, as a percentage of the required progress
+     * @param progress The player's progress
+     * @param required The progress required to meet the condition
+     */
+    private void onMilestone(Player player, String itemId, String conditionType, int percentage, int progress, int required) {
+        ItemStack item = createEventItem(itemId);
+        if (item != null) {
+            Bukkit.getPluginManager().callEvent(new ItemMilestoneEvent(player, item, conditionType, percentage, progress, required));
+        }
+        
+        if (!milestoneMessage.isEmpty()) {
+            notificationService.send(player, ChatColor.YELLOW + milestoneMessage
+                    .replace("%item%", itemId)
+                    .replace("%percentage%", String.valueOf(percentage))
+                    .replace("%progress%", String.valueOf(progress))
+                    .replace("%amount%", String.valueOf(required)));
         }
-        return false;
     }
     
     @Override
@@ -0,0 +1,126 @@
+package com.thefallersgames.progression.service;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces the requests to sweep a player's inventory for locked items. Kills, block breaks, pickups
+ * and denied item use all ask for a sweep; instead of scheduling a task for each, a request only marks
+ * the player dirty, and a single task sweeps every dirty player once per tick. A player mining a vein
+ * gets one inventory scan per tick, however many blocks they break in it.
+ * 
+ * Only used from the main server thread.
+ */
+public class InventorySweepScheduler {
+    
+    private final Consumer<Player> sweep;
+    private Map<UUID, Player> dirty;
+    private Map<UUID, Player> sweeping;
+    private BukkitTask sweepTask;
+    private long requestCount;
+    private long sweepCount;
+    
+    /**
+     * Create a new InventorySweepScheduler
+     * 
+     * @param sweep Sweeps a player's inventory, e.g. dropping the items they can't use
+     */
+    public InventorySweepScheduler(Consumer<Player> sweep) {
+        this.sweep = sweep;
+        this.dirty = new LinkedHashMap<>();
+        this.sweeping = new LinkedHashMap<>();
+    }
+    
+    /**
+     * Start sweeping dirty players every tick, replacing any previous schedule
+     * 
+     * @param plugin The plugin to schedule the sweep task for
+     */
+    public void start(Plugin plugin) {
+        stop();
+        sweepTask = Bukkit.getScheduler().runTaskTimer(plugin, this::sweepDirty, 1L, 1L);
+    }
+    
+    /**
+     * Stop sweeping and forget the players still waiting for a sweep
+     */
+    public void stop() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+        dirty.clear();
+    }
+    
+    /**
+     * Ask for a player's inventory to be swept on the next tick.
+     * Asking again before then is free and counts as a skipped sweep.
+     * 
+     * @param player The player
+     */
+    public void requestSweep(Player player) {
+        requestCount++;
+        dirty.putIfAbsent(player.getUniqueId(), player);
+    }
+    
+    /**
+     * Sweep every player marked dirty since the previous tick
+     */
+    private void sweepDirty() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        
+        // Swap the maps, so requests made during a sweep wait for the next tick
+        Map<UUID, Player> players = dirty;
+        dirty = sweeping;
+        sweeping = players;
+        
+        // A failed sweep must not leave the players behind, or the next swap would hand them back forever
+        try {
+            for (Player player : players.values()) {
+                if (player.isOnline()) {
+                    sweep.accept(player);
+                    sweepCount++;
+                }
+            }
+        } finally {
+            players.clear();
+        }
+    }
+    
+    /**
+     * Get how many sweeps were requested
+     * 
+     * @return The number of requests since the plugin was enabled
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+    
+    /**
+     * Get how many sweeps were run
+     * 
+     * @return The number of inventories swept since the plugin was enabled
+     */
+    public long getSweepCount() {
+        return sweepCount;
+    }
+    
+    /**
+     * Get how many requested sweeps were skipped, because the player was already waiting for one
+     * or had left by the time it ran
+     * 
+     * @return The number of skipped sweeps since the plugin was enabled
+     */
+    public long getSkippedCount() {
+        return requestCount - sweepCount - dirty.size();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.thefallersgames.progression.service;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * A quick test, built when the configuration loads, that rules out items no locked-items entry can match
+ * before their ID is resolved. Resolving the ID clones the item's meta to look for a custom item model;
+ * for plain items of a material nothing locks, this filter answers without touching the meta or
+ * allocating a string.
+ */
+public class ItemPrefilter {
+    
+    private final BitSet materials;
+    private final boolean customItems;
+    
+    private ItemPrefilter(BitSet materials, boolean customItems) {
+        this.materials = materials;
+        this.customItems = customItems;
+    }
+    
+    /**
+     * Build the filter for a set of locked items
+     * 
+     * @param itemIds The IDs of the locked items: lowercase material names or namespaced item model IDs
+     * @return The filter
+     */
+    public static ItemPrefilter of(Collection<String> itemIds) {
+        BitSet materials = new BitSet();
+        boolean customItems = false;
+        
+        for (String itemId : itemIds) {
+            if (itemId.contains(":")) {
+                customItems = true;
+            }
+        }
+        
+        for (Material material : Material.values()) {
+            if (itemIds.contains(material.name().toLowerCase())) {
+                materials.set(material.ordinal());
+            }
+        }
+        
+        return new ItemPrefilter(materials, customItems);
+    }
+    
+    /**
+     * Check if an item might be locked
+     * 
+     * @param item The item
+     * @return false if no locked item can match it, true if its ID has to be resolved to tell
+     */
+    public boolean mayBeLocked(ItemStack item) {
+        if (materials.get(item.getType().ordinal())) {
+            return true;
+        }
+        
+        // Only an item carrying a custom item model can match a namespaced ID
+        return customItems && item.hasItemMeta();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,231 @@
+package com.thefallersgames.progression.service;
+
+import org.bukkit.entity.Player;
+
+import com.thefallersgames.progression.api.condition.ProgressCondition;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A lock message parsed once when the configuration loads, into literal text and the slots its
+ * placeholders stand for. Placeholders whose value can't change, such as the required amount or the
+ * entity to kill, are folded into the literal text. Rendering walks the segments once and evaluates
+ * each condition at most once, however often its placeholders appear.
+ */
+public class MessageTemplate {
+    
+    private final String[] literals;
+    private final Slot[] slots;
+    private final int[] sourceIndexes;
+    private final ProgressCondition[] sources;
+    private final boolean foreignPlaceholders;
+    private final int literalLength;
+    
+    private MessageTemplate(List<String> literals, List<Slot> slots, boolean foreignPlaceholders) {
+        this.literals = literals.toArray(new String[0]);
+        this.slots = slots.toArray(new Slot[0]);
+        this.sourceIndexes = new int[slots.size()];
+        this.foreignPlaceholders = foreignPlaceholders;
+        
+        // Number the distinct conditions the slots read, so each is evaluated once per render
+        Map<ProgressCondition, Integer> indexes = new IdentityHashMap<>();
+        for (int i = 0; i < this.slots.length; i++) {
+            Integer index = indexes.get(this.slots[i].condition);
+            if (index == null) {
+                index = indexes.size();
+                indexes.put(this.slots[i].condition, index);
+            }
+            sourceIndexes[i] = index;
+        }
+        this.sources = new ProgressCondition[indexes.size()];
+        for (Map.Entry<ProgressCondition, Integer> entry : indexes.entrySet()) {
+            sources[entry.getValue()] = entry.getKey();
+        }
+        
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+    
+    /**
+     * Parse a message
+     * 
+     * @param message The configured message
+     * @param tokens The slot each known placeholder stands for, keyed by the placeholder including its % signs
+     * @return The template
+     */
+    public static MessageTemplate compile(String message, Map<String, Slot> tokens) {
+        List<String> literals = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        boolean foreignPlaceholders = false;
+        
+        int i = 0;
+        while (i < message.length()) {
+            char c = message.charAt(i);
+            if (c == '%') {
+                int end = message.indexOf('%', i + 1);
+                if (end > i + 1) {
+                    Slot slot = tokens.get(message.substring(i, end + 1));
+                    if (slot != null) {
+                        if (slot.kind == Kind.TEXT) {
+                            literal.append(slot.text);
+                        } else {
+                            literals.add(literal.toString());
+                            literal.setLength(0);
+                            slots.add(slot);
+                        }
+                        i = end + 1;
+                        continue;
+                    }
+                    
+                    // Left for PlaceholderAPI; the closing % may still open one of ours
+                    foreignPlaceholders = true;
+                }
+            }
+            literal.append(c);
+            i++;
+        }
+        literals.add(literal.toString());
+        
+        return new MessageTemplate(literals, slots, foreignPlaceholders);
+    }
+    
+    /**
+     * Check if the message contains placeholders the template doesn't know, which PlaceholderAPI may fill in
+     * 
+     * @return true if the rendered message should be passed to PlaceholderAPI
+     */
+    public boolean hasForeignPlaceholders() {
+        return foreignPlaceholders;
+    }
+    
+    /**
+     * Render the message for a player
+     * 
+     * @param player The player
+     * @return The message with its known placeholders filled in
+     */
+    public String render(Player player) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        
+        int[] progressValues = new int[sources.length];
+        boolean[] progressRead = new boolean[sources.length];
+        Boolean[] metValues = new Boolean[sources.length];
+        StringBuilder message = new StringBuilder(literalLength + slots.length * 4);
+        
+        for (int i = 0; i < slots.length; i++) {
+            message.append(literals[i]);
+            
+            Slot slot = slots[i];
+            int source = sourceIndexes[i];
+            if (slot.kind == Kind.MET) {
+                if (metValues[source] == null) {
+                    metValues[source] = sources[source].isMet(player);
+                }
+                message.append(metValues[source] ? slot.text : slot.otherwise);
+                continue;
+            }
+            
+            if (!progressRead[source]) {
+                progressValues[source] = sources[source].getCurrentProgress(player);
+                progressRead[source] = true;
+            }
+            if (slot.kind == Kind.PROGRESS) {
+                message.append(progressValues[source]);
+            } else {
+                message.append(percentage(progressValues[source], slot.required));
+            }
+        }
+        message.append(literals[slots.length]);
+        
+        return message.toString();
+    }
+    
+    /**
+     * Get how far progress is towards the required amount
+     * 
+     * @param progress The progress
+     * @param required The required amount
+     * @return The percentage, capped at 100
+     */
+    public static int percentage(int progress, int required) {
+        return required <= 0 ? 100 : Math.min(100, (progress * 100) / required);
+    }
+    
+    private enum Kind {
+        TEXT,
+        PROGRESS,
+        PERCENTAGE,
+        MET
+    }
+    
+    /**
+     * What a placeholder in a message stands for
+     */
+    public static final class Slot {
+        private final Kind kind;
+        private final ProgressCondition condition;
+        private final int required;
+        private final String text;
+        private final String otherwise;
+        
+        private Slot(Kind kind, ProgressCondition condition, int required, String text, String otherwise) {
+            this.kind = kind;
+            this.condition = condition;
+            this.required = required;
+            this.text = text;
+            this.otherwise = otherwise;
+        }
+        
+        /**
+         * A value that never changes, folded into the literal text
+         * 
+         * @param text The value
+         * @return The slot
+         */
+        public static Slot text(String text) {
+            return new Slot(Kind.TEXT, null, 0, text, null);
+        }
+        
+        /**
+         * A player's progress towards a condition
+         * 
+         * @param condition The condition
+         * @return The slot
+         */
+        public static Slot progress(ProgressCondition condition) {
+            return new Slot(Kind.PROGRESS, condition, 0, null, null);
+        }
+        
+        /**
+         * A player's progress towards a condition, as a percentage of the required amount
+         * 
+         * @param condition The condition whose progress is read
+         * @param required The required amount
+         * @return The slot
+         */
+        public static Slot percentage(ProgressCondition condition, int required) {
+            return new Slot(Kind.PERCENTAGE, condition, required, null, null);
+        }
+        
+        /**
+         * One of two values depending on whether a player meets a condition
+         * 
+         * @param condition The condition
+         * @param ifMet The value if the condition is met
+         * @param ifNotMet The value if it isn't
+         * @return The slot
+         */
+        public static Slot met(ProgressCondition condition, String ifMet, String ifNotMet) {
+            return new Slot(Kind.MET, condition, 0, ifMet, ifNotMet);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.thefallersgames.progression.service;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.thefallersgames.progression.adapter.PlaceholderValueCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the items whose conditions read placeholders, since no recorded progress tells when those are met.
+ * Every tick it works through the online players round-robin until its time budget is used up, so a slow
+ * placeholder delays sampling rather than the server. Values come from the PlaceholderValueCache, which only
+ * re-runs placeholders whose cached value expired. An item that was locked at a player's previous sample and
+ * is met now fires an ItemUnlockEvent, unless recorded progress already unlocked it in between.
+ */
+public class PlaceholderSampler {
+    
+    private final DefaultProgressService progressService;
+    private final PlaceholderValueCache valueCache;
+    // Items each player had locked at their last sample; absent until a player's first sample
+    private final Map<UUID, Set<String>> lockedItems;
+    private List<Player> round;
+    private int cursor;
+    private long budgetNanos;
+    private BukkitTask sampleTask;
+    
+    /**
+     * Create a new PlaceholderSampler
+     * 
+     * @param progressService The service evaluating the conditions
+     * @param valueCache The cache of sampled placeholder values
+     */
+    public PlaceholderSampler(DefaultProgressService progressService, PlaceholderValueCache valueCache) {
+        this.progressService = progressService;
+        this.valueCache = valueCache;
+        this.lockedItems = new HashMap<>();
+        this.round = Collections.emptyList();
+    }
+    
+    /**
+     * Start sampling every tick, replacing any previous schedule and forgetting what was sampled before
+     * 
+     * @param plugin The plugin to schedule the task for
+     * @param budgetMillis How long sampling may take per tick, 0 to not sample at all
+     */
+    public void start(Plugin plugin, double budgetMillis) {
+        stop();
+        lockedItems.clear();
+        round = Collections.emptyList();
+        cursor = 0;
+        
+        if (budgetMillis > 0) {
+            budgetNanos = (long) (budgetMillis * TimeUnit.MILLISECONDS.toNanos(1));
+            sampleTask = Bukkit.getScheduler().runTaskTimer(plugin, this::sample, 1L, 1L);
+        }
+    }
+    
+    /**
+     * Stop sampling
+     */
+    public void stop() {
+        if (sampleTask != null) {
+            sampleTask.cancel();
+            sampleTask = null;
+        }
+    }
+    
+    /**
+     * Note an unlock that was announced elsewhere, e.g. by recorded progress on an item that mixes a counter
+     * and a placeholder, so the next sample doesn't announce it again. Main thread only.
+     * 
+     * @param player The player
+     * @param itemId The unlocked item's ID
+     */
+    public void markUnlocked(Player player, String itemId) {
+        Set<String> locked = lockedItems.get(player.getUniqueId());
+        if (locked != null) {
+            locked.remove(itemId);
+        }
+    }
+    
+    /**
+     * Sample players until the budget for this tick is used up, visiting each online player at most once
+     */
+    private void sample() {
+        List<String> items = progressService.getPlaceholderItems();
+        if (items.isEmpty()) {
+            return;
+        }
+        
+        long deadline = System.nanoTime() + budgetNanos;
+        int visits = Bukkit.getOnlinePlayers().size();
+        
+        while (visits-- > 0 && System.nanoTime() < deadline) {
+            if (cursor >= round.size()) {
+                startRound();
+                if (round.isEmpty()) {
+                    return;
+                }
+            }
+            
+            Player player = round.get(cursor++);
+            if (player.isOnline()) {
+                sample(player, items);
+            }
+        }
+    }
+    
+    /**
+     * Take a snapshot of the online players for the next round, and forget the players who left
+     */
+    private void startRound() {
+        round = new ArrayList<>(Bukkit.getOnlinePlayers());
+        cursor = 0;
+        
+        Set<UUID> online = new HashSet<>();
+        for (Player player : round) {
+            online.add(player.getUniqueId());
+        }
+        lockedItems.keySet().retainAll(online);
+        valueCache.retainPlayers(online);
+    }
+    
+    /**
+     * Check a player's placeholder items and announce those that were locked before and are met now
+     * 
+     * @param player The player
+     * @param items The items whose conditions read placeholders
+     */
+    private void sample(Player player, List<String> items) {
+        Set<String> wasLocked = lockedItems.get(player.getUniqueId());
+        Set<String> locked = new HashSet<>();
+        
+        for (String itemId : items) {
+            if (progressService.isItemLocked(player, itemId)) {
+                locked.add(itemId);
+            } else if (wasLocked != null && wasLocked.contains(itemId)) {
+                progressService.notifyUnlocked(player, itemId, "placeholder");
+            }
+        }
+        
+        lockedItems.put(player.getUniqueId(), locked);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,173 @@
+package com.thefallersgames.progression.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The prerequisite relations between locked items, compiled into a DAG when the configuration loads.
+ * Items come out in topological order, prerequisites before the items that require them, and each item
+ * knows its direct dependents so an unlock only re-evaluates those. Cycles are cut out and reported
+ * instead of overflowing the stack on the first lock check.
+ */
+public class PrerequisiteGraph {
+    
+    private final List<String> order;
+    private final Map<String, List<String>> dependents;
+    private final List<List<String>> cycles;
+    
+    private PrerequisiteGraph(List<String> order, Map<String, List<String>> dependents, List<List<String>> cycles) {
+        this.order = order;
+        this.dependents = dependents;
+        this.cycles = cycles;
+    }
+    
+    /**
+     * Compile the prerequisite relations of the loaded items
+     * 
+     * @param prerequisites Item ID -> IDs of the items it requires, in configuration order.
+     *                      Prerequisites that aren't keys themselves are not locked and are ignored.
+     * @return The compiled graph
+     */
+    public static PrerequisiteGraph compile(Map<String, Set<String>> prerequisites) {
+        Map<String, Set<String>> edges = new LinkedHashMap<>();
+        for (Map.Entry<String, Set<String>> entry : prerequisites.entrySet()) {
+            Set<String> required = new LinkedHashSet<>();
+            for (String prerequisite : entry.getValue()) {
+                if (prerequisites.containsKey(prerequisite)) {
+                    required.add(prerequisite);
+                }
+            }
+            edges.put(entry.getKey(), required);
+        }
+        
+        List<List<String>> cycles = new ArrayList<>();
+        List<String> order = sort(edges);
+        
+        // Whatever couldn't be ordered sits on or behind a cycle; cut the cycles out one at a time
+        while (order.size() < edges.size()) {
+            List<String> cycle = findCycle(edges, order);
+            cycles.add(cycle);
+            
+            edges.keySet().removeAll(cycle);
+            for (Set<String> required : edges.values()) {
+                required.removeAll(cycle);
+            }
+            order = sort(edges);
+        }
+        
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (String itemId : order) {
+            for (String prerequisite : edges.get(itemId)) {
+                dependents.computeIfAbsent(prerequisite, k -> new ArrayList<>()).add(itemId);
+            }
+        }
+        
+        return new PrerequisiteGraph(order, dependents, cycles);
+    }
+    
+    /**
+     * Order the items so every item comes after its prerequisites (Kahn's algorithm)
+     * 
+     * @param edges Item ID -> IDs of the items it requires
+     * @return The items that could be ordered; items on or behind a cycle are left out
+     */
+    private static List<String> sort(Map<String, Set<String>> edges) {
+        Map<String, Integer> missing = new HashMap<>();
+        Map<String, List<String>> requiredBy = new HashMap<>();
+        Deque<String> ready = new ArrayDeque<>();
+        
+        for (Map.Entry<String, Set<String>> entry : edges.entrySet()) {
+            missing.put(entry.getKey(), entry.getValue().size());
+            for (String prerequisite : entry.getValue()) {
+                requiredBy.computeIfAbsent(prerequisite, k -> new ArrayList<>()).add(entry.getKey());
+            }
+            if (entry.getValue().isEmpty()) {
+                ready.add(entry.getKey());
+            }
+        }
+        
+        List<String> order = new ArrayList<>(edges.size());
+        while (!ready.isEmpty()) {
+            String itemId = ready.poll();
+            order.add(itemId);
+            
+            for (String dependent : requiredBy.getOrDefault(itemId, Collections.<String>emptyList())) {
+                if (missing.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        return order;
+    }
+    
+    /**
+     * Find a cycle among the items the sort left out
+     * 
+     * @param edges Item ID -> IDs of the items it requires
+     * @param order The items the sort could order
+     * @return The items on the cycle, each requiring the next and the last requiring the first
+     */
+    private static List<String> findCycle(Map<String, Set<String>> edges, List<String> order) {
+        Set<String> ordered = new LinkedHashSet<>(order);
+        String current = null;
+        for (String itemId : edges.keySet()) {
+            if (!ordered.contains(itemId)) {
+                current = itemId;
+                break;
+            }
+        }
+        
+        // Every unordered item requires another unordered item, so following those must come back around
+        List<String> path = new ArrayList<>();
+        Map<String, Integer> visited = new HashMap<>();
+        while (!visited.containsKey(current)) {
+            visited.put(current, path.size());
+            path.add(current);
+            
+            for (String prerequisite : edges.get(current)) {
+                if (!ordered.contains(prerequisite)) {
+                    current = prerequisite;
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(path.subList(visited.get(current), path.size()));
+    }
+    
+    /**
+     * Get the items in topological order
+     * 
+     * @return Item IDs, each after every item it requires; items on a cycle are left out
+     */
+    public List<String> getOrder() {
+        return order;
+    }
+    
+    /**
+     * Get the items that directly require an item
+     * 
+     * @param itemId The item ID
+     * @return The IDs of the items naming it as a prerequisite, in topological order
+     */
+    public List<String> getDependents(String itemId) {
+        List<String> items = dependents.get(itemId);
+        return items == null ? Collections.<String>emptyList() : items;
+    }
+    
+    /**
+     * Get the cycles that were cut out of the graph
+     * 
+     * @return The items on each cycle, each requiring the next and the last requiring the first
+     */
+    public List<List<String>> getCycles() {
+        return cycles;
+    }
+}
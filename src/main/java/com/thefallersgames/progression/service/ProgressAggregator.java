@@ -0,0 +1,193 @@
+package com.thefallersgames.progression.service;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.thefallersgames.progression.api.service.ProgressDelta;
+import com.thefallersgames.progression.api.service.ProgressService;
+import com.thefallersgames.progression.data.CounterRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces the progress listeners record within a tick. Mining with haste or a mob grinder produces
+ * dozens of events per player per tick; each only adds to the player's delta buffer, and once per flush
+ * interval each buffer is applied to the ProgressService as one batch, so every counter is written once,
+ * every item is checked for an unlock once, and locked items are swept once per player.
+ * 
+ * Only used from the main server thread.
+ */
+public class ProgressAggregator {
+    
+    private final ProgressService progressService;
+    private final CounterRegistry counterRegistry;
+    private final Consumer<Player> afterFlush;
+    private final Map<UUID, PendingProgress> pending;
+    private BukkitTask flushTask;
+    private ProgressPipeline pipeline;
+    
+    /**
+     * Create a new ProgressAggregator
+     * 
+     * @param progressService The service the buffered progress is applied to
+     * @param counterRegistry The registry of tracked counters
+     * @param afterFlush Called for every player whose progress was applied, e.g. to drop newly locked items
+     */
+    public ProgressAggregator(ProgressService progressService, CounterRegistry counterRegistry, Consumer<Player> afterFlush) {
+        this.progressService = progressService;
+        this.counterRegistry = counterRegistry;
+        this.afterFlush = afterFlush;
+        this.pending = new LinkedHashMap<>();
+    }
+    
+    /**
+     * Start flushing the buffers periodically, replacing any previous schedule
+     * 
+     * @param plugin The plugin to schedule the flush task for
+     * @param intervalTicks How often the buffers are applied, in ticks (at least 1)
+     */
+    public void start(Plugin plugin, long intervalTicks) {
+        stop();
+        long interval = Math.max(1L, intervalTicks);
+        flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, interval, interval);
+    }
+    
+    /**
+     * Stop the periodic flush and apply whatever is still buffered
+     */
+    public void stop() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+    }
+    
+    /**
+     * Hand progress on tracked counters to an evaluation thread instead of applying it here
+     * 
+     * @param pipeline The pipeline, or null to apply all progress on the main thread
+     */
+    public void setPipeline(ProgressPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+    
+    /**
+     * Buffer progress on a counter tracked by some condition.
+     * With a running pipeline the progress goes there, unless its ring buffer is full.
+     * 
+     * @param player The player making progress
+     * @param slot The counter's slot in the counter registry
+     * @param amount The amount of progress to add
+     */
+    public void add(Player player, int slot, int amount) {
+        if (slot < 0 || (pipeline != null && pipeline.offer(player, slot, amount))) {
+            return;
+        }
+        bufferOf(player).addSlot(slot, amount);
+    }
+    
+    /**
+     * Buffer progress on a counter identified by its type and key
+     * 
+     * @param player The player making progress
+     * @param conditionType The type of condition (e.g., "kills", "collect")
+     * @param key Additional identifier (e.g., entity type, material)
+     * @param amount The amount of progress to add
+     */
+    public void add(Player player, String conditionType, String key, int amount) {
+        int slot = counterRegistry.getSlot(conditionType.toLowerCase(), key.toLowerCase());
+        if (slot >= 0) {
+            add(player, slot, amount);
+            return;
+        }
+        
+        bufferOf(player).keyed.computeIfAbsent(conditionType, k -> new HashMap<>()).merge(key, amount, Integer::sum);
+    }
+    
+    /**
+     * Apply every buffered delta. Buffers of players who made no progress since the previous flush are dropped.
+     */
+    public void flush() {
+        Iterator<PendingProgress> buffers = pending.values().iterator();
+        while (buffers.hasNext()) {
+            PendingProgress buffer = buffers.next();
+            if (buffer.isEmpty()) {
+                buffers.remove();
+                continue;
+            }
+            
+            // Hand the player's totals over as one batch, so each item is checked for an unlock once
+            Player player = buffer.player;
+            List<ProgressDelta> deltas = new ArrayList<>(buffer.touchedCount);
+            for (int i = 0; i < buffer.touchedCount; i++) {
+                int slot = buffer.touched[i];
+                if (buffer.deltas[slot] != 0) {
+                    deltas.add(new ProgressDelta(counterRegistry.getType(slot), counterRegistry.getKey(slot), buffer.deltas[slot]));
+                    buffer.deltas[slot] = 0;
+                }
+            }
+            buffer.touchedCount = 0;
+            
+            for (Map.Entry<String, Map<String, Integer>> type : buffer.keyed.entrySet()) {
+                for (Map.Entry<String, Integer> entry : type.getValue().entrySet()) {
+                    deltas.add(new ProgressDelta(type.getKey(), entry.getKey(), entry.getValue()));
+                }
+            }
+            buffer.keyed.clear();
+            
+            progressService.recordProgress(player, deltas);
+            
+            if (player.isOnline()) {
+                afterFlush.accept(player);
+            }
+        }
+    }
+    
+    private PendingProgress bufferOf(Player player) {
+        PendingProgress buffer = pending.computeIfAbsent(player.getUniqueId(), k -> new PendingProgress());
+        buffer.player = player;
+        return buffer;
+    }
+    
+    /**
+     * The progress one player made since the last flush. Kept between flushes while the player keeps
+     * making progress, so a steady stream of events doesn't allocate.
+     */
+    private static class PendingProgress {
+        private Player player;
+        // Delta per slot, and the slots with a delta in the order they were first touched
+        private int[] deltas = new int[0];
+        private int[] touched = new int[8];
+        private int touchedCount;
+        private final Map<String, Map<String, Integer>> keyed = new HashMap<>();
+        
+        private void addSlot(int slot, int amount) {
+            if (slot >= deltas.length) {
+                deltas = Arrays.copyOf(deltas, Math.max(slot + 1, deltas.length * 2));
+            }
+            
+            if (deltas[slot] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touched.length * 2);
+                }
+                touched[touchedCount++] = slot;
+            }
+            deltas[slot] += amount;
+        }
+        
+        private boolean isEmpty() {
+            return touchedCount == 0 && keyed.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.thefallersgames.progression.service;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.thefallersgames.progression.api.service.ProgressDelta;
+import com.thefallersgames.progression.data.CounterRegistry;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Moves progress bookkeeping and unlock evaluation off the main thread.
+ * Listeners publish compact (player, counter slot, amount) entries into a bounded ring buffer; a single
+ * evaluation thread drains it, applies each player's progress and works out the unlocks, and posts only
+ * the resulting events, messages and inventory sweeps back to the main thread, where they run once per tick.
+ * 
+ * The ring is lock-free with one producer, the main thread, and one consumer, the evaluation thread.
+ * When it is full, offer() fails and the caller applies the progress synchronously instead; the number of
+ * such overflows is kept for /prog stats alongside the other pipeline metrics.
+ */
+public class ProgressPipeline {
+    
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    private final DefaultProgressService progressService;
+    private final CounterRegistry counterRegistry;
+    private final Consumer<Player> afterApply;
+    
+    // Ring entries, indexed by sequence & mask
+    private final Player[] players;
+    private final int[] slots;
+    private final int[] amounts;
+    private final int mask;
+    
+    // Next sequence the producer writes and the consumer reads; each is only written by its owner
+    private final AtomicLong head;
+    private final AtomicLong tail;
+    
+    private final Queue<Runnable> mainThreadActions;
+    private final AtomicLong published;
+    private final AtomicLong overflows;
+    private final AtomicLong batches;
+    private volatile int highWaterMark;
+    
+    private volatile boolean running;
+    private Thread evaluationThread;
+    private BukkitTask actionTask;
+    
+    /**
+     * Create a new ProgressPipeline
+     * 
+     * @param progressService The service evaluating the progress
+     * @param counterRegistry The registry of tracked counters
+     * @param capacity The number of entries the ring buffer holds, rounded up to a power of two
+     * @param afterApply Run on the main thread for every player whose progress was applied, e.g. to drop newly locked items
+     */
+    public ProgressPipeline(DefaultProgressService progressService, CounterRegistry counterRegistry, int capacity,
+            Consumer<Player> afterApply) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        
+        this.progressService = progressService;
+        this.counterRegistry = counterRegistry;
+        this.afterApply = afterApply;
+        this.players = new Player[size];
+        this.slots = new int[size];
+        this.amounts = new int[size];
+        this.mask = size - 1;
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.mainThreadActions = new ConcurrentLinkedQueue<>();
+        this.published = new AtomicLong();
+        this.overflows = new AtomicLong();
+        this.batches = new AtomicLong();
+    }
+    
+    /**
+     * Start the evaluation thread and the main-thread task running its results
+     * 
+     * @param plugin The plugin to schedule the task for
+     */
+    public void start(Plugin plugin) {
+        if (running) {
+            return;
+        }
+        
+        running = true;
+        evaluationThread = new Thread(this::evaluate, "Progression-Evaluation");
+        evaluationThread.setDaemon(true);
+        evaluationThread.start();
+        actionTask = Bukkit.getScheduler().runTaskTimer(plugin, this::runMainThreadActions, 1L, 1L);
+    }
+    
+    /**
+     * Stop accepting progress, let the evaluation thread finish what is buffered and run its results.
+     * Must be called from the main thread, e.g. before item conditions are reloaded.
+     */
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        
+        running = false;
+        LockSupport.unpark(evaluationThread);
+        try {
+            evaluationThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        evaluationThread = null;
+        
+        if (actionTask != null) {
+            actionTask.cancel();
+            actionTask = null;
+        }
+        runMainThreadActions();
+    }
+    
+    /**
+     * Publish progress on a counter tracked by some condition. Main thread only.
+     * 
+     * @param player The player making progress
+     * @param slot The counter's slot in the counter registry
+     * @param amount The amount of progress to add
+     * @return true if the progress was queued, false if the pipeline is stopped or full and the caller must apply it
+     */
+    public boolean offer(Player player, int slot, int amount) {
+        if (!running) {
+            return false;
+        }
+        
+        long sequence = head.get();
+        int depth = (int) (sequence - tail.get());
+        if (depth > mask) {
+            overflows.incrementAndGet();
+            return false;
+        }
+        
+        int index = (int) (sequence & mask);
+        players[index] = player;
+        slots[index] = slot;
+        amounts[index] = amount;
+        
+        // Publishing the new head makes the entry visible to the evaluation thread
+        head.lazySet(sequence + 1);
+        published.incrementAndGet();
+        
+        if (depth + 1 > highWaterMark) {
+            highWaterMark = depth + 1;
+        }
+        return true;
+    }
+    
+    /**
+     * The evaluation thread: drain the ring, add up each player's progress and evaluate it as one batch
+     */
+    private void evaluate() {
+        Map<Player, Map<Integer, Integer>> pending = new LinkedHashMap<>();
+        
+        while (true) {
+            // Read the flag before draining, so nothing published before stop() is left behind
+            boolean stopping = !running;
+            long sequence = tail.get();
+            long end = head.get();
+            
+            if (sequence == end) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            
+            for (; sequence < end; sequence++) {
+                int index = (int) (sequence & mask);
+                pending.computeIfAbsent(players[index], k -> new LinkedHashMap<>())
+                        .merge(slots[index], amounts[index], Integer::sum);
+                players[index] = null;
+            }
+            // Hand the entries back to the producer
+            tail.lazySet(end);
+            
+            List<Runnable> deferred = new ArrayList<>();
+            Set<Player> applied = new LinkedHashSet<>();
+            
+            for (Map.Entry<Player, Map<Integer, Integer>> entry : pending.entrySet()) {
+                List<ProgressDelta> deltas = new ArrayList<>(entry.getValue().size());
+                for (Map.Entry<Integer, Integer> slot : entry.getValue().entrySet()) {
+                    deltas.add(new ProgressDelta(counterRegistry.getType(slot.getKey()),
+                            counterRegistry.getKey(slot.getKey()), slot.getValue()));
+                }
+                
+                try {
+                    progressService.recordProgress(entry.getKey(), deltas, deferred);
+                    applied.add(entry.getKey());
+                } catch (RuntimeException e) {
+                    Bukkit.getLogger().severe("Failed to evaluate progress of " + entry.getKey().getName() + ": " + e.getMessage());
+                }
+            }
+            pending.clear();
+            batches.incrementAndGet();
+            
+            mainThreadActions.addAll(deferred);
+            for (Player player : applied) {
+                mainThreadActions.add(() -> {
+                    if (player.isOnline()) {
+                        afterApply.accept(player);
+                    }
+                });
+            }
+        }
+    }
+    
+    /**
+     * Run the events, messages and sweeps the evaluation thread produced
+     */
+    private void runMainThreadActions() {
+        Runnable action;
+        while ((action = mainThreadActions.poll()) != null) {
+            action.run();
+        }
+    }
+    
+    /**
+     * Check if the pipeline is accepting progress
+     * 
+     * @return true if the evaluation thread is running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Get the number of entries the ring buffer holds
+     * 
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+    
+    /**
+     * Get the number of entries waiting for the evaluation thread
+     * 
+     * @return The current depth of the ring buffer
+     */
+    public int getDepth() {
+        return (int) (head.get() - tail.get());
+    }
+    
+    /**
+     * Get the deepest the ring buffer has been
+     * 
+     * @return The high-water mark
+     */
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+    
+    /**
+     * Get the number of entries published to the ring buffer
+     * 
+     * @return The published count
+     */
+    public long getPublishedCount() {
+        return published.get();
+    }
+    
+    /**
+     * Get the number of entries that found the ring buffer full and were applied synchronously
+     * 
+     * @return The overflow count
+     */
+    public long getOverflowCount() {
+        return overflows.get();
+    }
+    
+    /**
+     * Get the number of batches the evaluation thread has evaluated
+     * 
+     * @return The batch count
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+}
@@ -0,0 +1,217 @@
+package com.thefallersgames.progression.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Every progress threshold that refers to a counter slot, sorted by value. A threshold is either
+ * the amount a condition requires, or a milestone at a percentage of that amount.
+ * When a counter moves from an old to a new value, the crossed thresholds are found with a binary
+ * search instead of checking every item that tracks the counter.
+ */
+public class ThresholdIndex {
+    
+    /**
+     * Percentage of a threshold that marks the required amount itself rather than a milestone
+     */
+    public static final int REQUIREMENT = 100;
+    
+    private static final Slot EMPTY = new Slot(new int[0], new int[0], new int[0], new int[0]);
+    
+    private final Slot[] slots;
+    
+    private ThresholdIndex(Slot[] slots) {
+        this.slots = slots;
+    }
+    
+    /**
+     * Check if any threshold refers to a counter
+     * 
+     * @param slot The counter's slot
+     * @return true if some loaded condition tracks the counter
+     */
+    public boolean hasThresholds(int slot) {
+        return getSlot(slot).values.length > 0;
+    }
+    
+    /**
+     * Find the first threshold above a value
+     * 
+     * @param slot The counter's slot
+     * @param value The counter's old value
+     * @return The index of the first threshold greater than value
+     */
+    public int firstAbove(int slot, int value) {
+        int[] values = getSlot(slot).values;
+        int low = 0;
+        int high = values.length;
+        
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Get the number of thresholds on a counter
+     * 
+     * @param slot The counter's slot
+     * @return The threshold count
+     */
+    public int size(int slot) {
+        return getSlot(slot).values.length;
+    }
+    
+    /**
+     * Get a threshold value
+     * 
+     * @param slot The counter's slot
+     * @param index The threshold's index, in ascending order of value
+     * @return The counter value at which the threshold is crossed
+     */
+    public int getValue(int slot, int index) {
+        return getSlot(slot).values[index];
+    }
+    
+    /**
+     * Get the item a threshold belongs to
+     * 
+     * @param slot The counter's slot
+     * @param index The threshold's index
+     * @return The item's ordinal
+     */
+    public int getItem(int slot, int index) {
+        return getSlot(slot).items[index];
+    }
+    
+    /**
+     * Get the percentage of the required amount a threshold marks
+     * 
+     * @param slot The counter's slot
+     * @param index The threshold's index
+     * @return The milestone percentage, or REQUIREMENT for the required amount itself
+     */
+    public int getPercentage(int slot, int index) {
+        return getSlot(slot).percentages[index];
+    }
+    
+    /**
+     * Get the amount required by the condition a threshold belongs to
+     * 
+     * @param slot The counter's slot
+     * @param index The threshold's index
+     * @return The required amount
+     */
+    public int getRequired(int slot, int index) {
+        return getSlot(slot).required[index];
+    }
+    
+    private Slot getSlot(int slot) {
+        return slot >= 0 && slot < slots.length && slots[slot] != null ? slots[slot] : EMPTY;
+    }
+    
+    /**
+     * The thresholds of one counter, as parallel arrays sorted by value
+     */
+    private static class Slot {
+        private final int[] values;
+        private final int[] items;
+        private final int[] percentages;
+        private final int[] required;
+        
+        private Slot(int[] values, int[] items, int[] percentages, int[] required) {
+            this.values = values;
+            this.items = items;
+            this.percentages = percentages;
+            this.required = required;
+        }
+    }
+    
+    /**
+     * Collects thresholds and builds an immutable ThresholdIndex
+     */
+    public static class Builder {
+        
+        private final int[] milestones;
+        private final List<List<int[]>> entries;
+        
+        /**
+         * Create a new Builder
+         * 
+         * @param milestones The milestone percentages to add below every required amount
+         */
+        public Builder(List<Integer> milestones) {
+            this.milestones = new int[milestones.size()];
+            for (int i = 0; i < this.milestones.length; i++) {
+                this.milestones[i] = milestones.get(i);
+            }
+            this.entries = new ArrayList<>();
+        }
+        
+        /**
+         * Add the required amount of a condition on a counter, along with its milestones
+         * 
+         * @param slot The counter's slot
+         * @param item The ordinal of the item whose condition requires the amount
+         * @param required The required amount
+         * @return This builder
+         */
+        public Builder add(int slot, int item, int required) {
+            while (entries.size() <= slot) {
+                entries.add(null);
+            }
+            if (entries.get(slot) == null) {
+                entries.set(slot, new ArrayList<>());
+            }
+            
+            List<int[]> slotEntries = entries.get(slot);
+            slotEntries.add(new int[] {required, item, REQUIREMENT, required});
+            
+            for (int percentage : milestones) {
+                // Round up, so a milestone is only passed once the progress really reaches the percentage
+                int value = (int) ((required * (long) percentage + 99) / 100);
+                if (percentage > 0 && percentage < REQUIREMENT && value > 0 && value < required) {
+                    slotEntries.add(new int[] {value, item, percentage, required});
+                }
+            }
+            return this;
+        }
+        
+        /**
+         * Sort the collected thresholds into an index
+         * 
+         * @return The index
+         */
+        public ThresholdIndex build() {
+            Slot[] slots = new Slot[entries.size()];
+            
+            for (int slot = 0; slot < slots.length; slot++) {
+                List<int[]> slotEntries = entries.get(slot);
+                if (slotEntries == null) {
+                    continue;
+                }
+                
+                slotEntries.sort(Comparator.comparingInt(entry -> entry[0]));
+                int count = slotEntries.size();
+                Slot thresholds = new Slot(new int[count], new int[count], new int[count], new int[count]);
+                
+                for (int i = 0; i < count; i++) {
+                    int[] entry = slotEntries.get(i);
+                    thresholds.values[i] = entry[0];
+                    thresholds.items[i] = entry[1];
+                    thresholds.percentages[i] = entry[2];
+                    thresholds.required[i] = entry[3];
+                }
+                slots[slot] = thresholds;
+            }
+            
+            return new ThresholdIndex(slots);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.thefallersgames.progression.service;
+
+import org.bukkit.entity.Player;
+
+import com.thefallersgames.progression.api.facade.ItemLockStatus;
+import com.thefallersgames.progression.api.service.NotificationChannel;
+import com.thefallersgames.progression.api.service.NotificationService;
+
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.TextComponent;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends lock messages, telling each player about each locked item at most once per cooldown.
+ * A player standing next to a locked item triggers a pickup check every tick; while the item is on
+ * cooldown, the check is a pair of map lookups that neither renders the message nor sends a packet.
+ * Each player's record holds at most MAX_TRACKED_ITEMS items, drops items whose cooldown has passed,
+ * and is removed when the player leaves. Must be used from the main thread.
+ */
+public class ThrottledNotificationService implements NotificationService {
+    
+    /**
+     * How many items a player's record remembers at most; the oldest is dropped past this
+     */
+    private static final int MAX_TRACKED_ITEMS = 64;
+    
+    private final Map<UUID, RecentItems> recent;
+    private NotificationChannel channel;
+    private long cooldownNanos;
+    
+    /**
+     * Create a new ThrottledNotificationService that sends to chat
+     */
+    public ThrottledNotificationService() {
+        this.recent = new HashMap<>();
+        this.channel = NotificationChannel.CHAT;
+    }
+    
+    /**
+     * Set where messages are shown
+     * 
+     * @param channel The channel
+     */
+    public void setChannel(NotificationChannel channel) {
+        this.channel = channel == null ? NotificationChannel.CHAT : channel;
+    }
+    
+    /**
+     * Set how long to wait before telling a player about the same locked item again
+     * 
+     * @param cooldownMillis The cooldown in milliseconds, 0 to send every message
+     */
+    public void setCooldownMillis(long cooldownMillis) {
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, cooldownMillis));
+        recent.clear();
+    }
+    
+    @Override
+    public boolean notifyLocked(Player player, ItemLockStatus status) {
+        if (cooldownNanos > 0 && status.getItemId() != null) {
+            long now = System.nanoTime();
+            RecentItems items = recent.get(player.getUniqueId());
+            
+            if (items == null) {
+                items = new RecentItems();
+                recent.put(player.getUniqueId(), items);
+            } else {
+                Long sentAt = items.get(status.getItemId());
+                if (sentAt != null && now - sentAt < cooldownNanos) {
+                    return false;
+                }
+                items.expire(now);
+            }
+            
+            // Re-insert so the record stays ordered by send time
+            items.remove(status.getItemId());
+            items.put(status.getItemId(), now);
+        }
+        
+        send(player, status.getMessage());
+        return true;
+    }
+    
+    @Override
+    public void send(Player player, String message) {
+        switch (channel) {
+            case ACTION_BAR:
+                player.spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(message));
+                break;
+            case TITLE:
+                player.sendTitle("", message, 5, 40, 10);
+                break;
+            default:
+                player.sendMessage(message);
+                break;
+        }
+    }
+    
+    @Override
+    public void forget(UUID playerId) {
+        recent.remove(playerId);
+    }
+    
+    /**
+     * When a player was last told about each item, oldest first
+     */
+    private class RecentItems extends LinkedHashMap<String, Long> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * Drop the items whose cooldown has passed
+         * 
+         * @param now The current time in nanoseconds
+         */
+        private void expire(long now) {
+            Iterator<Long> sentTimes = values().iterator();
+            while (sentTimes.hasNext() && now - sentTimes.next() >= cooldownNanos) {
+                sentTimes.remove();
+            }
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_TRACKED_ITEMS;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.thefallersgames.progression.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for the binary profile encoding used by binary files and region segments.
+ */
+public class BinaryProfileCodecTest {
+    
+    /**
+     * Every value survives a round trip, including zero, negative and extreme values and non-ASCII keys.
+     */
+    @Test
+    public void roundTripsProgress() throws IOException {
+        Map<String, Map<String, Integer>> progress = new HashMap<>();
+        Map<String, Integer> kills = new HashMap<>();
+        kills.put("zombie", 12);
+        kills.put("skeleton", 0);
+        kills.put("creeper", -3);
+        progress.put("kills", kills);
+        Map<String, Integer> placeholder = new HashMap<>();
+        placeholder.put("%vault_eco_balance%", Integer.MAX_VALUE);
+        placeholder.put("étage", Integer.MIN_VALUE);
+        progress.put("placeholder", placeholder);
+        
+        assertEquals(progress, decode(encode(progress)));
+    }
+    
+    /**
+     * A player without progress encodes to a valid, empty profile.
+     */
+    @Test
+    public void roundTripsEmptyProfile() throws IOException {
+        Map<String, Map<String, Integer>> progress = new HashMap<>();
+        
+        assertEquals(progress, decode(encode(progress)));
+    }
+    
+    /**
+     * Names shared by a type and a key are stored once in the dictionary and still decode to both.
+     */
+    @Test
+    public void sharesDictionaryEntries() throws IOException {
+        Map<String, Map<String, Integer>> progress = new HashMap<>();
+        progress.put("stone", new HashMap<>());
+        progress.get("stone").put("stone", 7);
+        progress.put("break", new HashMap<>());
+        progress.get("break").put("stone", 9);
+        
+        assertEquals(progress, decode(encode(progress)));
+    }
+    
+    /**
+     * Varints round trip at every length boundary, and negative values take five bytes.
+     */
+    @Test
+    public void roundTripsVarInts() throws IOException {
+        for (int value : new int[] {0, 1, 127, 128, 16383, 16384, 2097151, 2097152, Integer.MAX_VALUE, -1, Integer.MIN_VALUE}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            BinaryProfileCodec.writeVarInt(new DataOutputStream(bytes), value);
+            
+            assertEquals(value, BinaryProfileCodec.readVarInt(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+            if (value < 0) {
+                assertEquals(5, bytes.size());
+            }
+        }
+    }
+    
+    /**
+     * Data that doesn't start with the magic number is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void rejectsWrongMagic() throws IOException {
+        byte[] data = encode(sampleProgress());
+        data[0] ^= 0x01;
+        decode(data);
+    }
+    
+    /**
+     * Profiles written by a newer version are rejected rather than misread.
+     */
+    @Test(expected = IOException.class)
+    public void rejectsNewerVersion() throws IOException {
+        byte[] data = encode(sampleProgress());
+        data[4] = (byte) (BinaryProfileCodec.VERSION + 1);
+        decode(data);
+    }
+    
+    /**
+     * A profile cut short, e.g. by a crash during a write, fails to decode.
+     */
+    @Test
+    public void rejectsTruncatedData() {
+        byte[] data = encode(sampleProgress());
+        
+        for (int length = 0; length < data.length; length++) {
+            try {
+                decode(Arrays.copyOf(data, length));
+                fail("Decoded a profile truncated to " + length + " bytes");
+            } catch (IOException expected) {
+                // Every prefix is incomplete
+            }
+        }
+    }
+    
+    /**
+     * A dictionary index outside the dictionary is reported as corrupt data.
+     */
+    @Test(expected = IOException.class)
+    public void rejectsDictionaryIndexOutOfRange() throws IOException {
+        Map<String, Map<String, Integer>> progress = new HashMap<>();
+        progress.put("kills", new HashMap<>());
+        progress.get("kills").put("zombie", 1);
+        byte[] data = encode(progress);
+        
+        // Magic, version, dictionary of "kills" and "zombie", type count, then the type's dictionary index
+        int typeIndex = 4 + 1 + 1 + 1 + "kills".length() + 1 + "zombie".length() + 1;
+        assertEquals(0, data[typeIndex]);
+        data[typeIndex] = 5;
+        decode(data);
+    }
+    
+    /**
+     * A varint longer than five bytes is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void rejectsOverlongVarInt() throws IOException {
+        byte[] data = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01};
+        BinaryProfileCodec.readVarInt(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+    
+    private static Map<String, Map<String, Integer>> sampleProgress() {
+        Map<String, Map<String, Integer>> progress = new HashMap<>();
+        progress.put("kills", new HashMap<>());
+        progress.get("kills").put("zombie", 300);
+        progress.put("collect", new HashMap<>());
+        progress.get("collect").put("diamond", 64);
+        return progress;
+    }
+    
+    private static byte[] encode(Map<String, Map<String, Integer>> progress) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            BinaryProfileCodec.write(bytes, progress);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static Map<String, Map<String, Integer>> decode(byte[] data) throws IOException {
+        return BinaryProfileCodec.read(new ByteArrayInputStream(data));
+    }
+}
@@ -0,0 +1,135 @@
+package com.thefallersgames.progression.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Stress tests for reading a PlayerProfile from other threads while it is being written,
+ * as placeholder plugins do while the main thread records progress.
+ */
+public class PlayerProfileConcurrencyTest {
+    
+    private static final int COUNTERS = 64;
+    private static final int ROUNDS = 2000;
+    private static final int READERS = 4;
+    
+    /**
+     * Readers must never see a counter go backwards while a writer only increments,
+     * including while the counter array grows and sparse values move into it.
+     */
+    @Test(timeout = 60000)
+    public void readersSeeMonotonicCountersWhileWriterGrowsProfile() throws Exception {
+        CounterRegistry registry = new CounterRegistry();
+        PlayerProfile profile = new PlayerProfile(false, registry);
+        
+        // Values loaded before any condition tracks them start out sparse
+        for (int i = 0; i < COUNTERS; i++) {
+            profile.setProgress("kills", "entity" + i, 1);
+        }
+        
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> readers = new ArrayList<>();
+        
+        for (int r = 0; r < READERS; r++) {
+            Thread reader = new Thread(() -> {
+                int[] lastSeen = new int[COUNTERS];
+                awaitQuietly(start);
+                
+                while (!done.get() && failure.get() == null) {
+                    for (int i = 0; i < COUNTERS; i++) {
+                        int value = profile.getProgress("kills", "entity" + i);
+                        if (value < lastSeen[i]) {
+                            failure.compareAndSet(null, "entity" + i + " went from " + lastSeen[i] + " to " + value);
+                        }
+                        lastSeen[i] = value;
+                    }
+                    profile.copyProgressMap();
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        
+        Thread writer = new Thread(() -> {
+            awaitQuietly(start);
+            
+            for (int round = 0; round < ROUNDS; round++) {
+                // Register one counter per round so readers race the sparse hand-over and array growth
+                if (round < COUNTERS) {
+                    registry.register("kills", "entity" + round);
+                }
+                
+                for (int i = 0; i < COUNTERS; i++) {
+                    profile.addProgress("kills", "entity" + i, 1);
+                }
+            }
+        });
+        writer.start();
+        
+        start.countDown();
+        writer.join();
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        
+        assertNull(failure.get());
+        for (int i = 0; i < COUNTERS; i++) {
+            assertEquals("entity" + i, ROUNDS + 1, profile.getProgress("kills", "entity" + i));
+            assertEquals("entity" + i, ROUNDS + 1, (long) profile.copyProgressMap().get("kills").get("entity" + i));
+        }
+    }
+    
+    /**
+     * Concurrent writers to the same counters must not lose increments.
+     */
+    @Test(timeout = 60000)
+    public void concurrentAddsAreNotLost() throws Exception {
+        CounterRegistry registry = new CounterRegistry();
+        int slot = registry.register("break", "stone");
+        PlayerProfile profile = new PlayerProfile(false, registry);
+        
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        
+        for (int w = 0; w < READERS; w++) {
+            Thread writer = new Thread(() -> {
+                awaitQuietly(start);
+                for (int round = 0; round < ROUNDS; round++) {
+                    profile.addCounter(slot, 1);
+                    profile.addProgress("break", "dirt", 1);
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        
+        assertEquals(READERS * ROUNDS, profile.getCounter(slot));
+        assertEquals(READERS * ROUNDS, profile.getProgress("break", "dirt"));
+        assertTrue(profile.isDirty());
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
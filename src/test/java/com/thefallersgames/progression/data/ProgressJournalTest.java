@@ -0,0 +1,177 @@
+package com.thefallersgames.progression.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the progress journal: replay of what was recorded, and recovery from a damaged segment.
+ */
+public class ProgressJournalTest {
+    
+    private static final Logger LOGGER = Logger.getLogger(ProgressJournalTest.class.getName());
+    private static final UUID PLAYER = new UUID(1, 2);
+    private static final UUID OTHER = new UUID(3, 4);
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    /**
+     * Every kind of record is replayed, in the order it was recorded.
+     */
+    @Test
+    public void replaysRecordsInOrder() throws IOException {
+        File journalFolder = folder.newFolder("journal");
+        ProgressJournal journal = open(journalFolder);
+        journal.recordSet(PLAYER, "kills", "zombie", 3);
+        journal.recordSet(OTHER, "collect", "diamond", 64);
+        journal.recordRemove(PLAYER, "unlocked", "diamond_sword");
+        journal.recordClear(OTHER);
+        journal.recordSet(PLAYER, "kills", "zombie", 4);
+        journal.close(false);
+        
+        List<String> replayed = new ArrayList<>();
+        int records = new ProgressJournal(journalFolder, LOGGER).replay(recorder(replayed));
+        
+        assertEquals(5, records);
+        assertEquals(Arrays.asList(
+                "set " + PLAYER + " kills.zombie=3",
+                "set " + OTHER + " collect.diamond=64",
+                "remove " + PLAYER + " unlocked.diamond_sword",
+                "clear " + OTHER,
+                "set " + PLAYER + " kills.zombie=4"), replayed);
+    }
+    
+    /**
+     * A record torn by a crash mid-write ends replay of its segment without losing the records before it.
+     */
+    @Test
+    public void ignoresTornRecordAtEnd() throws IOException {
+        File journalFolder = folder.newFolder("journal");
+        ProgressJournal journal = open(journalFolder);
+        journal.recordSet(PLAYER, "kills", "zombie", 3);
+        journal.recordSet(PLAYER, "kills", "skeleton", 5);
+        journal.close(false);
+        
+        // A length and checksum with only part of the payload behind them
+        try (RandomAccessFile segment = new RandomAccessFile(onlySegment(journalFolder), "rw")) {
+            segment.seek(segment.length());
+            segment.writeInt(40);
+            segment.writeInt(0);
+            segment.write(new byte[] {1, 2, 3});
+        }
+        
+        List<String> replayed = new ArrayList<>();
+        int records = new ProgressJournal(journalFolder, LOGGER).replay(recorder(replayed));
+        
+        assertEquals(2, records);
+        assertEquals("set " + PLAYER + " kills.skeleton=5", replayed.get(1));
+    }
+    
+    /**
+     * A record whose payload doesn't match its CRC is not replayed.
+     */
+    @Test
+    public void skipsRecordWithBadChecksum() throws IOException {
+        File journalFolder = folder.newFolder("journal");
+        ProgressJournal journal = open(journalFolder);
+        journal.recordSet(PLAYER, "kills", "zombie", 3);
+        journal.recordSet(PLAYER, "kills", "skeleton", 5);
+        journal.close(false);
+        
+        // The last byte belongs to the value of the second record
+        try (RandomAccessFile segment = new RandomAccessFile(onlySegment(journalFolder), "rw")) {
+            segment.seek(segment.length() - 1);
+            int last = segment.read();
+            segment.seek(segment.length() - 1);
+            segment.write(last ^ 0xFF);
+        }
+        
+        List<String> replayed = new ArrayList<>();
+        int records = new ProgressJournal(journalFolder, LOGGER).replay(recorder(replayed));
+        
+        assertEquals(1, records);
+        assertEquals(Arrays.asList("set " + PLAYER + " kills.zombie=3"), replayed);
+    }
+    
+    /**
+     * Records made before a rotation go away with the sealed segment; later ones stay.
+     */
+    @Test
+    public void deletesOnlySealedSegments() throws IOException {
+        File journalFolder = folder.newFolder("journal");
+        ProgressJournal journal = open(journalFolder);
+        journal.recordSet(PLAYER, "kills", "zombie", 3);
+        journal.rotate();
+        journal.recordSet(PLAYER, "kills", "zombie", 4);
+        journal.flush();
+        
+        assertEquals(1, journal.getSealedSegmentCount());
+        journal.deleteSealed();
+        journal.close(false);
+        
+        List<String> replayed = new ArrayList<>();
+        new ProgressJournal(journalFolder, LOGGER).replay(recorder(replayed));
+        
+        assertEquals(Arrays.asList("set " + PLAYER + " kills.zombie=4"), replayed);
+    }
+    
+    /**
+     * Closing with discard removes every segment once all changes are known to be saved.
+     */
+    @Test
+    public void discardLeavesNothingToReplay() throws IOException {
+        File journalFolder = folder.newFolder("journal");
+        ProgressJournal journal = open(journalFolder);
+        journal.recordSet(PLAYER, "kills", "zombie", 3);
+        journal.close(true);
+        
+        List<String> replayed = new ArrayList<>();
+        
+        assertEquals(0, new ProgressJournal(journalFolder, LOGGER).replay(recorder(replayed)));
+        assertEquals(0, journalFolder.listFiles().length);
+    }
+    
+    private static ProgressJournal open(File journalFolder) throws IOException {
+        ProgressJournal journal = new ProgressJournal(journalFolder, LOGGER);
+        // Flushed by the tests themselves, the background flusher never gets to run
+        journal.open(60000);
+        return journal;
+    }
+    
+    private static File onlySegment(File journalFolder) {
+        File[] segments = journalFolder.listFiles();
+        assertEquals(1, segments.length);
+        return segments[0];
+    }
+    
+    private static ProgressJournal.ReplayHandler recorder(List<String> replayed) {
+        return new ProgressJournal.ReplayHandler() {
+            @Override
+            public void set(UUID playerId, String conditionType, String key, int value) {
+                replayed.add("set " + playerId + " " + conditionType + "." + key + "=" + value);
+            }
+            
+            @Override
+            public void remove(UUID playerId, String conditionType, String key) {
+                replayed.add("remove " + playerId + " " + conditionType + "." + key);
+            }
+            
+            @Override
+            public void clear(UUID playerId) {
+                replayed.add("clear " + playerId);
+            }
+        };
+    }
+}
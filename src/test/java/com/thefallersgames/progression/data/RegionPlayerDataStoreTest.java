@@ -0,0 +1,60 @@
+package com.thefallersgames.progression.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the region store's segment count, which decides where each player is stored and so must not
+ * change once the store has been written.
+ */
+public class RegionPlayerDataStoreTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    /**
+     * A reopened store keeps its own segment count even when a different one is configured.
+     */
+    @Test
+    public void keepsSegmentCountAcrossReopen() throws IOException {
+        File regions = folder.newFolder("regions");
+        RegionPlayerDataStore store = new RegionPlayerDataStore(regions, 4);
+        for (int i = 0; i < 20; i++) {
+            store.save(new UUID(0, i), progress(i));
+        }
+        store.close();
+        
+        store = new RegionPlayerDataStore(regions, 8);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(progress(i), store.load(new UUID(0, i)));
+        }
+        store.close();
+        assertEquals(4, regions.list().length);
+    }
+    
+    /**
+     * A store with a segment file missing is refused instead of opened with fewer segments.
+     */
+    @Test(expected = IOException.class)
+    public void refusesMissingSegment() throws IOException {
+        File regions = folder.newFolder("regions");
+        new RegionPlayerDataStore(regions, 4).close();
+        Files.delete(new File(regions, "segment-002.dat").toPath());
+        
+        new RegionPlayerDataStore(regions, 4);
+    }
+    
+    private static Map<String, Map<String, Integer>> progress(int value) {
+        return Collections.singletonMap("kills", Collections.singletonMap("zombie", value));
+    }
+}
@@ -0,0 +1,133 @@
+package com.thefallersgames.progression.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for region segment files: records moving when they outgrow their slot, the index growing,
+ * and compaction.
+ */
+public class RegionSegmentTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    /**
+     * A record that outgrows its slot moves, its old slot becomes free space, and the move survives a reopen.
+     */
+    @Test
+    public void relocatesGrownRecord() throws IOException {
+        Path file = new File(folder.getRoot(), "region-0.dat").toPath();
+        RegionSegment segment = new RegionSegment(file, 1);
+        UUID first = new UUID(0, 1);
+        UUID second = new UUID(0, 2);
+        segment.write(first, progress(1, 5));
+        segment.write(second, progress(1, 6));
+        long freeBefore = segment.getFreeBytes();
+        
+        Map<String, Map<String, Integer>> grown = progress(200, 7);
+        segment.write(first, grown);
+        
+        assertEquals(grown, segment.read(first));
+        assertEquals(progress(1, 6), segment.read(second));
+        assertTrue(segment.getFreeBytes() > freeBefore);
+        
+        segment.sync();
+        segment.close();
+        segment = new RegionSegment(file, 1);
+        
+        assertEquals(grown, segment.read(first));
+        assertEquals(progress(1, 6), segment.read(second));
+        segment.close();
+    }
+    
+    /**
+     * Adding more players than the index holds rewrites the segment with a larger index, keeping every record.
+     */
+    @Test
+    public void growsIndexWhenFull() throws IOException {
+        Path file = new File(folder.getRoot(), "region-0.dat").toPath();
+        RegionSegment segment = new RegionSegment(file, 1);
+        int players = 1500;
+        
+        for (int i = 0; i < players; i++) {
+            segment.write(new UUID(0, i), progress(1, i));
+        }
+        
+        assertEquals(players, segment.size());
+        assertEquals(progress(1, 0), segment.read(new UUID(0, 0)));
+        assertEquals(progress(1, players - 1), segment.read(new UUID(0, players - 1)));
+        
+        segment.close();
+        segment = new RegionSegment(file, 1);
+        
+        assertEquals(players, segment.size());
+        assertEquals(progress(1, 1024), segment.read(new UUID(0, 1024)));
+        segment.close();
+        
+        // The temporary copy is renamed over the segment, not left behind
+        assertEquals(1, folder.getRoot().listFiles().length);
+    }
+    
+    /**
+     * Compaction drops the space of deleted and moved records and keeps the rest readable.
+     */
+    @Test
+    public void compactReclaimsFreeSpace() throws IOException {
+        Path file = new File(folder.getRoot(), "region-0.dat").toPath();
+        RegionSegment segment = new RegionSegment(file, 1);
+        for (int i = 0; i < 20; i++) {
+            segment.write(new UUID(0, i), progress(20, i));
+        }
+        for (int i = 0; i < 20; i += 2) {
+            assertTrue(segment.delete(new UUID(0, i)));
+        }
+        assertFalse(segment.delete(new UUID(0, 0)));
+        
+        long free = segment.getFreeBytes();
+        long reclaimed = segment.compact();
+        
+        assertTrue(reclaimed > 0);
+        assertTrue(reclaimed <= free);
+        assertEquals(10, segment.size());
+        assertNull(segment.read(new UUID(0, 0)));
+        for (int i = 1; i < 20; i += 2) {
+            assertEquals(progress(20, i), segment.read(new UUID(0, i)));
+        }
+        segment.close();
+    }
+    
+    /**
+     * A file that isn't a region segment is refused instead of being overwritten.
+     */
+    @Test(expected = IOException.class)
+    public void rejectsForeignFile() throws IOException {
+        File file = folder.newFile("region-0.dat");
+        Files.write(file.toPath(), new byte[64]);
+        new RegionSegment(file.toPath(), 1);
+    }
+    
+    private static Map<String, Map<String, Integer>> progress(int keys, int value) {
+        Map<String, Map<String, Integer>> progress = new HashMap<>();
+        Map<String, Integer> kills = new HashMap<>();
+        for (int i = 0; i < keys; i++) {
+            kills.put("entity_" + i, value);
+        }
+        progress.put("kills", kills);
+        return progress;
+    }
+}
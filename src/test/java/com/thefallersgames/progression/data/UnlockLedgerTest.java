@@ -0,0 +1,54 @@
+package com.thefallersgames.progression.data;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for the per-player unlock ledger.
+ */
+public class UnlockLedgerTest {
+    
+    /**
+     * A thread that read a stale counter must not lock an item another thread just unlocked.
+     */
+    @Test
+    public void unlockedItemIsNotDowngradedToLocked() {
+        UnlockLedger ledger = new UnlockLedger();
+        ledger.set(1, 5, UnlockLedger.UNLOCKED);
+        
+        assertEquals(UnlockLedger.UNLOCKED, ledger.set(1, 5, UnlockLedger.LOCKED));
+        assertEquals(UnlockLedger.UNLOCKED, ledger.get(1, 5));
+    }
+    
+    /**
+     * Locked items can still be unlocked, and their neighbours in the same word are left alone.
+     */
+    @Test
+    public void lockedItemCanBeUnlocked() {
+        UnlockLedger ledger = new UnlockLedger();
+        ledger.set(1, 4, UnlockLedger.LOCKED);
+        ledger.set(1, 5, UnlockLedger.LOCKED);
+        
+        assertEquals(UnlockLedger.UNLOCKED, ledger.set(1, 5, UnlockLedger.UNLOCKED));
+        assertEquals(UnlockLedger.UNLOCKED, ledger.get(1, 5));
+        assertEquals(UnlockLedger.LOCKED, ledger.get(1, 4));
+    }
+    
+    /**
+     * A new configuration generation and an explicit clear both forget earlier unlocks.
+     */
+    @Test
+    public void newGenerationAndClearForgetUnlocks() {
+        UnlockLedger ledger = new UnlockLedger();
+        ledger.set(1, 40, UnlockLedger.UNLOCKED);
+        
+        assertEquals(UnlockLedger.UNKNOWN, ledger.get(2, 40));
+        assertEquals(UnlockLedger.LOCKED, ledger.set(2, 40, UnlockLedger.LOCKED));
+        
+        ledger.set(2, 40, UnlockLedger.UNLOCKED);
+        ledger.clear();
+        assertEquals(UnlockLedger.UNKNOWN, ledger.get(2, 40));
+        assertEquals(UnlockLedger.LOCKED, ledger.set(2, 40, UnlockLedger.LOCKED));
+    }
+}
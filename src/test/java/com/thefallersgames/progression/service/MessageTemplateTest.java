@@ -0,0 +1,117 @@
+package com.thefallersgames.progression.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.entity.Player;
+
+import com.thefallersgames.progression.api.condition.ProgressCondition;
+import com.thefallersgames.progression.api.factory.ConditionFactory;
+import com.thefallersgames.progression.condition.CompositeCondition;
+
+import org.junit.Test;
+
+/**
+ * Tests for the numbers lock message templates render for composite conditions.
+ */
+public class MessageTemplateTest {
+    
+    private static final String MESSAGE = "%prog_sword_progress%/%prog_sword_amount% (%prog_sword_percentage%%)";
+    
+    /**
+     * In any mode the progress counts the met sub-conditions, not the first sub-condition's counter.
+     */
+    @Test
+    public void anyModeCountsMetConditions() {
+        CompositeCondition composite = composite("any", 0, condition(37, 50), condition(3, 10));
+        
+        assertEquals("0/1 (0%)", DefaultProgressService.compileMessage("sword", composite, MESSAGE).render(null));
+        
+        composite = composite("any", 0, condition(37, 50), condition(10, 10));
+        
+        assertEquals("1/1 (100%)", DefaultProgressService.compileMessage("sword", composite, MESSAGE).render(null));
+    }
+    
+    /**
+     * In at-least mode the progress is the number of met sub-conditions out of the configured count.
+     */
+    @Test
+    public void atLeastModeCountsMetConditions() {
+        CompositeCondition composite = composite("at-least", 2, condition(37, 50), condition(10, 10), condition(0, 5));
+        
+        assertEquals("1/2 (50%)", DefaultProgressService.compileMessage("sword", composite, MESSAGE).render(null));
+    }
+    
+    /**
+     * In all mode the progress is still that of the first sub-condition.
+     */
+    @Test
+    public void allModeShowsFirstCondition() {
+        CompositeCondition composite = composite("all", 0, condition(37, 50), condition(10, 10));
+        
+        assertEquals("37/50 (74%)", DefaultProgressService.compileMessage("sword", composite, MESSAGE).render(null));
+    }
+    
+    private static Map<String, Object> condition(int progress, int amount) {
+        Map<String, Object> condition = new HashMap<>();
+        condition.put("type", "fixed");
+        condition.put("progress", progress);
+        condition.put("amount", amount);
+        return condition;
+    }
+    
+    @SafeVarargs
+    private static CompositeCondition composite(String mode, int count, Map<String, Object>... conditions) {
+        ConditionFactory factory = new ConditionFactory();
+        factory.registerCondition("fixed", config -> new FixedCondition(config.getInt("progress"), config.getInt("amount")));
+        
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (Map<String, Object> condition : conditions) {
+            list.add(condition);
+        }
+        
+        MemoryConfiguration config = new MemoryConfiguration();
+        config.set("mode", mode);
+        config.set("count", count);
+        config.set("conditions", list);
+        return new CompositeCondition(config, factory);
+    }
+    
+    /**
+     * A counter condition with a fixed value, the same for every player
+     */
+    private static class FixedCondition implements ProgressCondition {
+        private final int progress;
+        private final int required;
+        
+        FixedCondition(int progress, int required) {
+            this.progress = progress;
+            this.required = required;
+        }
+        
+        @Override
+        public boolean isMet(Player player) {
+            return progress >= required;
+        }
+        
+        @Override
+        public int getCurrentProgress(Player player) {
+            return progress;
+        }
+        
+        @Override
+        public int getRequiredProgress() {
+            return required;
+        }
+        
+        @Override
+        public String getDescription() {
+            return "Reach " + required;
+        }
+    }
+}
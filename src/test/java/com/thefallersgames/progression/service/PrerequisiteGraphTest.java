@@ -0,0 +1,91 @@
+package com.thefallersgames.progression.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for compiling prerequisite relations into a DAG.
+ */
+public class PrerequisiteGraphTest {
+    
+    /**
+     * Every item comes after the items it requires, and knows its direct dependents.
+     */
+    @Test
+    public void ordersPrerequisitesFirst() {
+        Map<String, Set<String>> prerequisites = new LinkedHashMap<>();
+        prerequisites.put("diamond_sword", set("iron_sword"));
+        prerequisites.put("iron_sword", set("stone_sword"));
+        prerequisites.put("stone_sword", set());
+        
+        PrerequisiteGraph graph = PrerequisiteGraph.compile(prerequisites);
+        
+        assertEquals(Arrays.asList("stone_sword", "iron_sword", "diamond_sword"), graph.getOrder());
+        assertEquals(Collections.singletonList("iron_sword"), graph.getDependents("stone_sword"));
+        assertTrue(graph.getDependents("diamond_sword").isEmpty());
+        assertTrue(graph.getCycles().isEmpty());
+    }
+    
+    /**
+     * Prerequisites that aren't locked items themselves don't constrain the order.
+     */
+    @Test
+    public void ignoresUnlockedPrerequisites() {
+        Map<String, Set<String>> prerequisites = new LinkedHashMap<>();
+        prerequisites.put("iron_sword", set("wooden_sword"));
+        
+        PrerequisiteGraph graph = PrerequisiteGraph.compile(prerequisites);
+        
+        assertEquals(Collections.singletonList("iron_sword"), graph.getOrder());
+        assertTrue(graph.getDependents("wooden_sword").isEmpty());
+    }
+    
+    /**
+     * A cycle is cut out and reported, while items that only depend on it are still ordered.
+     */
+    @Test
+    public void cutsCyclesAndKeepsItemsBehindThem() {
+        Map<String, Set<String>> prerequisites = new LinkedHashMap<>();
+        prerequisites.put("a", set("b"));
+        prerequisites.put("b", set("c"));
+        prerequisites.put("c", set("a"));
+        prerequisites.put("d", set("a"));
+        prerequisites.put("e", set());
+        
+        PrerequisiteGraph graph = PrerequisiteGraph.compile(prerequisites);
+        
+        assertEquals(1, graph.getCycles().size());
+        List<String> cycle = graph.getCycles().get(0);
+        assertEquals(new LinkedHashSet<>(Arrays.asList("a", "b", "c")), new LinkedHashSet<>(cycle));
+        assertEquals(set("d", "e"), new LinkedHashSet<>(graph.getOrder()));
+        assertTrue(graph.getDependents("a").isEmpty());
+    }
+    
+    /**
+     * An item requiring itself is a cycle of one.
+     */
+    @Test
+    public void reportsSelfCycle() {
+        Map<String, Set<String>> prerequisites = new LinkedHashMap<>();
+        prerequisites.put("a", set("a"));
+        
+        PrerequisiteGraph graph = PrerequisiteGraph.compile(prerequisites);
+        
+        assertEquals(Collections.singletonList(Collections.singletonList("a")), graph.getCycles());
+        assertTrue(graph.getOrder().isEmpty());
+    }
+    
+    private static Set<String> set(String... items) {
+        return new LinkedHashSet<>(Arrays.asList(items));
+    }
+}
@@ -0,0 +1,98 @@
+package com.thefallersgames.progression.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Tests for the per-counter index of required amounts and milestones.
+ */
+public class ThresholdIndexTest {
+    
+    /**
+     * Thresholds of every item on a counter are sorted by value, each with its milestones below it.
+     */
+    @Test
+    public void sortsThresholdsOfAllItems() {
+        ThresholdIndex index = new ThresholdIndex.Builder(Arrays.asList(50))
+                .add(0, 1, 100)
+                .add(0, 2, 10)
+                .build();
+        
+        assertEquals(4, index.size(0));
+        assertEquals(5, index.getValue(0, 0));
+        assertEquals(2, index.getItem(0, 0));
+        assertEquals(50, index.getPercentage(0, 0));
+        assertEquals(10, index.getRequired(0, 0));
+        assertEquals(10, index.getValue(0, 1));
+        assertEquals(ThresholdIndex.REQUIREMENT, index.getPercentage(0, 1));
+        assertEquals(50, index.getValue(0, 2));
+        assertEquals(1, index.getItem(0, 2));
+        assertEquals(100, index.getValue(0, 3));
+        assertEquals(100, index.getRequired(0, 3));
+    }
+    
+    /**
+     * A milestone is only passed once progress really reaches its percentage, so values are rounded up.
+     */
+    @Test
+    public void roundsMilestonesUp() {
+        ThresholdIndex index = new ThresholdIndex.Builder(Arrays.asList(25, 50, 75)).add(0, 0, 10).build();
+        
+        assertEquals(3, index.getValue(0, 0));
+        assertEquals(5, index.getValue(0, 1));
+        assertEquals(8, index.getValue(0, 2));
+        assertEquals(10, index.getValue(0, 3));
+    }
+    
+    /**
+     * Milestones that would land on zero or on the required amount itself are left out.
+     */
+    @Test
+    public void skipsMilestonesWithoutOwnValue() {
+        ThresholdIndex index = new ThresholdIndex.Builder(Arrays.asList(0, 50, 99, 100)).add(0, 0, 1).build();
+        
+        assertEquals(1, index.size(0));
+        assertEquals(ThresholdIndex.REQUIREMENT, index.getPercentage(0, 0));
+    }
+    
+    /**
+     * The search finds the first threshold strictly above the old value.
+     */
+    @Test
+    public void findsFirstThresholdAboveValue() {
+        ThresholdIndex index = new ThresholdIndex.Builder(Collections.<Integer>emptyList())
+                .add(3, 0, 10)
+                .add(3, 1, 20)
+                .add(3, 2, 20)
+                .add(3, 3, 30)
+                .build();
+        
+        assertEquals(0, index.firstAbove(3, 0));
+        assertEquals(0, index.firstAbove(3, 9));
+        assertEquals(1, index.firstAbove(3, 10));
+        assertEquals(1, index.firstAbove(3, 19));
+        assertEquals(3, index.firstAbove(3, 20));
+        assertEquals(4, index.firstAbove(3, 30));
+    }
+    
+    /**
+     * Counters no condition tracks, including slots past the end, have no thresholds.
+     */
+    @Test
+    public void untrackedSlotsAreEmpty() {
+        ThresholdIndex index = new ThresholdIndex.Builder(Arrays.asList(50)).add(2, 0, 10).build();
+        
+        assertTrue(index.hasThresholds(2));
+        assertFalse(index.hasThresholds(0));
+        assertFalse(index.hasThresholds(7));
+        assertFalse(index.hasThresholds(-1));
+        assertEquals(0, index.size(7));
+        assertEquals(0, index.firstAbove(7, 100));
+    }
+}